@@ -1,7 +1,7 @@
 package de.gemuesehasser.hspv;
 
 import de.gemuesehasser.hspv.constant.ImageType;
-import de.gemuesehasser.hspv.object.LVS;
+import de.gemuesehasser.hspv.object.LvsIndex;
 import de.gemuesehasser.hspv.object.gui.LoginGui;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,8 +11,6 @@ import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.time.LocalDateTime;
-import java.util.LinkedHashMap;
 
 /**
  * Die Haupt- und Main-Klasse der HSPV-Stundenplan Anwendung.
@@ -29,10 +27,10 @@ public class Timetable {
     //</editor-fold>
 
     //<editor-fold desc="STATIC FIELDS">
-    /** Alle geladenen Lehrveranstaltungen aus der aktuellen ICS-Datei. */
+    /** Alle geladenen Lehrveranstaltungen aus der aktuellen ICS-Datei, sortiert nach ihrer Startzeit. */
     @Getter
     @Setter
-    private static LinkedHashMap<LocalDateTime, LVS> lvsMap;
+    private static LvsIndex lvsIndex;
     //</editor-fold>
 
 
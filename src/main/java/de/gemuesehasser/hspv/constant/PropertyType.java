@@ -1,18 +1,27 @@
 package de.gemuesehasser.hspv.constant;
 
 import de.gemuesehasser.hspv.Timetable;
+import de.gemuesehasser.hspv.handler.FileHandler;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Ein {@link PropertyType Typ} beschreibt eine Datei, die im Cache-Ordner dieser Anwendung gespeichert wird. Beim
  * Erzeugen dieses Typs, wird überprüft, ob diese Datei bereits existiert. Wenn dies nicht der Fall ist, wird diese
- * Datei neu erstellt.
+ * Datei neu erstellt. Änderungen werden zunächst nur im Speicher vorgenommen und spätestens nach
+ * {@value FLUSH_DELAY} Millisekunden gesammelt im Hintergrund in die Datei geschrieben.
  */
 public enum PropertyType {
 
@@ -20,7 +29,24 @@ public enum PropertyType {
     /** Die Datei, in welcher alle Benutzerdaten gespeichert werden. */
     DATA_FILE("data.properties"),
     /** Die Datei, in welcher die Konfigurationen aller Benutzer gespeichert werden. */
-    CONFIG_FILE("config.properties");
+    CONFIG_FILE("config.properties"),
+    /** Die Datei, in welcher die Angaben zum letzten Download des Stundenplans jedes Benutzers gespeichert werden. */
+    DOWNLOAD_FILE("download.properties");
+    //</editor-fold>
+
+
+    //<editor-fold desc="CONSTANTS">
+    /** Die Zeit in Millisekunden, nach der alle gesammelten Änderungen spätestens in die Datei geschrieben werden. */
+    private static final long FLUSH_DELAY = 500;
+    /** Die Zeit in Millisekunden, nach der ein fehlgeschlagener Schreibvorgang wiederholt wird. */
+    private static final long RETRY_DELAY = 5000;
+    /** Der {@link ScheduledExecutorService}, in dem alle gesammelten Änderungen in die Dateien geschrieben werden. */
+    @NotNull
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "properties-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
     //</editor-fold>
 
 
@@ -32,6 +58,9 @@ public enum PropertyType {
     /** Die Datei, welche mithilfe dieses Typen generiert wird. */
     @NotNull
     private final File file;
+    /** Ob bereits Änderungen vorliegen, die noch nicht in die Datei geschrieben wurden. */
+    @NotNull
+    private final AtomicBoolean dirty = new AtomicBoolean();
     //</editor-fold>
 
 
@@ -52,18 +81,69 @@ public enum PropertyType {
             System.out.println("File created: " + file.getAbsolutePath());
         }
 
-        this.properties.load(Files.newInputStream(file.toPath()));
+        try (final InputStream input = Files.newInputStream(file.toPath())) {
+            this.properties.load(input);
+        }
     }
     //</editor-fold>
 
 
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (@NotNull final PropertyType type : values()) {
+                type.flushIfDirty();
+            }
+        }, "properties-shutdown"));
+    }
+
+
     /**
      * Speichert die {@link Properties}, die auf der Grundlage dieses Typen erzeugt wurden im Cache-Ordner dieser
-     * Anwendung ab.
+     * Anwendung ab. Die Datei wird dabei nicht sofort, sondern spätestens nach {@value FLUSH_DELAY} Millisekunden im
+     * Hintergrund geschrieben, sodass mehrere Änderungen hintereinander nur zu einem Schreibvorgang führen. Spätestens
+     * beim Beenden der Anwendung werden alle ausstehenden Änderungen geschrieben.
      */
-    @SneakyThrows
     public void saveProperties() {
-        this.properties.store(Files.newOutputStream(file.toPath()), null);
+        if (!dirty.compareAndSet(false, true)) return;
+
+        EXECUTOR.schedule(this::flush, FLUSH_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schreibt die {@link Properties}, die auf der Grundlage dieses Typen erzeugt wurden, sofort in die Datei im
+     * Cache-Ordner dieser Anwendung. Die {@link Properties} werden dabei zuerst in eine temporäre Datei geschrieben,
+     * welche anschließend an ihren Platz verschoben wird, sodass die Datei niemals nur teilweise geschrieben ist. Schlägt
+     * das Schreiben fehl, bleiben die Änderungen ausstehend und das Schreiben wird nach {@value RETRY_DELAY}
+     * Millisekunden wiederholt.
+     */
+    public synchronized void flush() {
+        // changes made while writing schedule another flush
+        dirty.set(false);
+
+        final File temporaryFile = new File(file.getPath() + ".tmp");
+
+        try {
+            try (final OutputStream output = Files.newOutputStream(temporaryFile.toPath())) {
+                this.properties.store(output, null);
+            }
+
+            FileHandler.moveAtomically(temporaryFile, file);
+        } catch (@NotNull final IOException e) {
+            System.out.println("failed to save " + file.getName() + ": " + e.getMessage());
+
+            // keep the changes pending, as saveProperties only schedules a flush if nothing is pending yet
+            dirty.set(true);
+            EXECUTOR.schedule(this::flush, RETRY_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Schreibt alle ausstehenden Änderungen sofort in die Datei. Da dies unter derselben Sperre wie
+     * {@link #flush()} geschieht, wird dabei zuerst auf einen gerade laufenden Schreibvorgang gewartet, sodass auch
+     * dessen Änderungen erneut geschrieben werden, falls dieser fehlgeschlagen ist.
+     */
+    private synchronized void flushIfDirty() {
+        if (dirty.get()) flush();
     }
 
 }
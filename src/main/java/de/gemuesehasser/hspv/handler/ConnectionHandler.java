@@ -0,0 +1,182 @@
+package de.gemuesehasser.hspv.handler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mithilfe des {@link ConnectionHandler} lässt sich prüfen, ob eine Verbindung zu den Servern der HSPV bzw. von Antrago
+ * besteht. Dabei werden alle Server gleichzeitig angefragt und die erste erfolgreiche Antwort genutzt. Das Ergebnis
+ * wird für kurze Zeit zwischengespeichert, sodass es von allen folgenden Anfragen (z.B. beim Aktualisieren des
+ * Stundenplans) wiederverwendet werden kann. Ein negatives Ergebnis wird dabei deutlich kürzer zwischengespeichert als
+ * ein positives, da es auch durch eine langsame Namensauflösung entstehen kann. Nur das negative Ergebnis einer
+ * vorgezogenen Prüfung (siehe {@link #probeInAdvance()}) wird bis zur nächsten Anfrage aufbewahrt, damit ein Start
+ * ohne Verbindung beim Login nicht erneut auf die Prüfung warten muss.
+ */
+public final class ConnectionHandler {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Alle Hosts, zu denen eine Verbindung geprüft wird. */
+    @NotNull
+    private static final String @NotNull [] HOSTS = {"www.hspv.nrw.de", "mvc.antrago.hspv.nrw.de"};
+    /** Der Port, über den die Verbindung zu den Hosts geprüft wird. */
+    private static final int PORT = 443;
+    /** Die Zeit in Millisekunden, nach der der Verbindungsaufbau zu einem bereits aufgelösten Host abgebrochen wird. */
+    private static final int TIMEOUT = 750;
+    /** Die Zeit in Millisekunden, die zusätzlich zum Verbindungsaufbau für die Namensauflösung eingeräumt wird. */
+    private static final int RESOLVE_TIMEOUT = 2000;
+    /** Die Zeit in Millisekunden, für die ein positives Ergebnis einer Prüfung wiederverwendet wird. */
+    private static final long CACHE_DURATION = TimeUnit.SECONDS.toMillis(30);
+    /** Die Zeit in Millisekunden, für die ein negatives Ergebnis einer Prüfung wiederverwendet wird. */
+    private static final long NEGATIVE_CACHE_DURATION = TimeUnit.SECONDS.toMillis(3);
+    /** Der {@link ExecutorService}, in dem alle Hosts gleichzeitig angefragt werden. */
+    @NotNull
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "connection-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //</editor-fold>
+
+
+    //<editor-fold desc="LOCAL FIELDS">
+    /** Das Ergebnis der letzten Prüfung. */
+    private static boolean connected;
+    /** Der Zeitpunkt (in Millisekunden), an dem die letzte Prüfung abgeschlossen wurde. */
+    private static long lastCheck;
+    /** Ob bereits eine Prüfung durchgeführt wurde. */
+    private static boolean checked;
+    /** Ob das negative Ergebnis einer vorgezogenen Prüfung bis zur nächsten Anfrage aufbewahrt wird. */
+    private static boolean reserved;
+    //</editor-fold>
+
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Prüft, ob eine Verbindung zu mindestens einem der Server der HSPV bzw. von Antrago hergestellt werden kann. Liegt
+     * die letzte Prüfung weniger als {@value CACHE_DURATION} (bei einem negativen Ergebnis
+     * {@value NEGATIVE_CACHE_DURATION}) Millisekunden zurück, wird deren Ergebnis wiederverwendet.
+     *
+     * @return Wenn eine Verbindung besteht {@code true}, ansonsten {@code false}.
+     */
+    public static synchronized boolean isConnectionPresent() {
+        if (isCached()) {
+            reserved = false;
+            return connected;
+        }
+
+        connected = probe();
+        lastCheck = System.currentTimeMillis();
+        checked = true;
+
+        return connected;
+    }
+
+    /**
+     * Prüft die Verbindung vorab (z.B. während der Nutzer noch seine Benutzerdaten eingibt). Ein negatives Ergebnis
+     * wird dabei unabhängig von seinem Alter für die nächste Anfrage aufbewahrt.
+     *
+     * @return Wenn eine Verbindung besteht {@code true}, ansonsten {@code false}.
+     */
+    public static synchronized boolean probeInAdvance() {
+        connected = probe();
+        lastCheck = System.currentTimeMillis();
+        checked = true;
+        reserved = !connected;
+
+        return connected;
+    }
+
+    /**
+     * Prüft, ob das Ergebnis der letzten Prüfung noch zwischengespeichert ist und bei der nächsten Anfrage
+     * wiederverwendet wird.
+     *
+     * @return Wenn das Ergebnis der letzten Prüfung noch zwischengespeichert ist {@code true}, ansonsten {@code false}.
+     */
+    public static synchronized boolean isCached() {
+        final long cacheDuration = connected ? CACHE_DURATION : NEGATIVE_CACHE_DURATION;
+        return checked && (reserved || System.currentTimeMillis() - lastCheck < cacheDuration);
+    }
+
+    /**
+     * Verwirft das zwischengespeicherte Ergebnis der letzten Prüfung, sodass bei der nächsten Anfrage erneut geprüft
+     * wird.
+     */
+    public static synchronized void invalidate() {
+        checked = false;
+        reserved = false;
+    }
+
+    /**
+     * Fragt alle Hosts gleichzeitig an und wartet, bis der erste Host erreichbar ist, alle Hosts nicht erreichbar sind
+     * oder die maximale Wartezeit abgelaufen ist. Die maximale Wartezeit umfasst dabei sowohl die Namensauflösung als
+     * auch den Verbindungsaufbau.
+     *
+     * @return Wenn mindestens ein Host erreichbar ist {@code true}, ansonsten {@code false}.
+     */
+    private static boolean probe() {
+        final CompletionService<Boolean> completionService = new ExecutorCompletionService<>(EXECUTOR);
+        final Future<?>[] futures = new Future<?>[HOSTS.length];
+
+        for (int i = 0; i < HOSTS.length; i++) {
+            final String host = HOSTS[i];
+            futures[i] = completionService.submit(() -> isHostReachable(host));
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RESOLVE_TIMEOUT + TIMEOUT);
+        try {
+            for (int i = 0; i < HOSTS.length; i++) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return false;
+
+                final Future<Boolean> result = completionService.poll(remaining, TimeUnit.NANOSECONDS);
+                if (result == null) return false;
+                if (result.get()) return true;
+            }
+
+            return false;
+        } catch (@NotNull final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (@NotNull final ExecutionException e) {
+            return false;
+        } finally {
+            for (@NotNull final Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Prüft, ob eine Verbindung zu einem bestimmten Host hergestellt werden kann. Die Zeit für den Verbindungsaufbau
+     * beginnt dabei erst, nachdem der Host aufgelöst wurde.
+     *
+     * @param host Der Host, welcher überprüft werden soll.
+     *
+     * @return Wenn dieser Host erreichbar ist, {@code true}, ansonsten {@code false}.
+     */
+    private static boolean isHostReachable(@NotNull final String host) {
+        try (final Socket socket = new Socket()) {
+            final InetSocketAddress address = new InetSocketAddress(host, PORT);
+            if (address.isUnresolved()) return false;
+
+            socket.connect(address, TIMEOUT);
+
+            return true;
+        } catch (@NotNull final IOException ignored) {
+            return false;
+        }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,38 @@
+package de.gemuesehasser.hspv.handler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Der {@link DictionaryHandler} stellt ein gemeinsames Wörterbuch für alle Texte bereit, die sich über viele
+ * Lehrveranstaltungen hinweg wiederholen (z.B. Modulbezeichnungen, Räume oder Namen von Dozenten). Jeder Text wird
+ * dabei nur ein einziges Mal im Speicher gehalten und von allen Lehrveranstaltungen gemeinsam genutzt.
+ */
+public final class DictionaryHandler {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Das Wörterbuch, welches jedem bereits bekannten Text seine gemeinsam genutzte Instanz zuordnet. */
+    @NotNull
+    private static final ConcurrentHashMap<String, String> DICTIONARY = new ConcurrentHashMap<>();
+    //</editor-fold>
+
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Gibt die gemeinsam genutzte Instanz eines Textes zurück. Ist der Text noch nicht im Wörterbuch enthalten, wird
+     * er hinzugefügt.
+     *
+     * @param text Der Text, dessen gemeinsam genutzte Instanz zurückgegeben werden soll.
+     *
+     * @return Die gemeinsam genutzte Instanz des Textes.
+     */
+    @NotNull
+    public static String intern(@NotNull final String text) {
+        final String existing = DICTIONARY.putIfAbsent(text, text);
+        return existing == null ? text : existing;
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,415 @@
+package de.gemuesehasser.hspv.handler;
+
+import de.gemuesehasser.hspv.object.TimetableDownload;
+import org.htmlunit.WebClient;
+import org.htmlunit.util.Cookie;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * Mithilfe des {@link DownloadHandler} lässt sich der Stundenplan über eine einfache HTTP-Verbindung herunterladen.
+ * Dabei wird eine komprimierte Übertragung (gzip) angefragt und der Inhalt direkt in eine temporäre Datei gestreamt,
+ * ohne ihn vollständig im Speicher zu halten. Der Hash-Wert des Inhalts wird bereits während der Übertragung berechnet.
+ * Cookies und TLS-Einstellungen werden dabei von einem {@link WebClient} übernommen, sodass sich der Download wie eine
+ * Anfrage innerhalb dessen Sitzung verhält.
+ */
+public final class DownloadHandler {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Die Größe des Puffers, mit dem der Inhalt übertragen wird. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** Die Zeit in Millisekunden, nach der der Verbindungsaufbau abgebrochen wird. */
+    private static final int CONNECT_TIMEOUT = 10_000;
+    /** Die Zeit in Millisekunden, nach der das Warten auf weitere Daten abgebrochen wird. */
+    private static final int READ_TIMEOUT = 30_000;
+    /** Der Algorithmus, mit dem der Hash-Wert des Inhalts erzeugt wird. */
+    @NotNull
+    private static final String HASH_ALGORITHM = "SHA-256";
+    /** Der HTTP-Status, mit dem der Server antwortet, wenn sich der Inhalt seit dem letzten Download nicht verändert hat. */
+    private static final int NOT_MODIFIED = 304;
+    /** Die maximale Anzahl an Weiterleitungen, denen während eines Downloads gefolgt wird. */
+    private static final int MAX_REDIRECTS = 5;
+    //</editor-fold>
+
+
+    //<editor-fold desc="LOCAL FIELDS">
+    /** Die {@link SSLSocketFactory}, welche jedem Zertifikat vertraut, oder {@code null}, wenn sie noch nicht benötigt wurde. */
+    @Nullable
+    private static SSLSocketFactory insecureSocketFactory;
+    //</editor-fold>
+
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Lädt den Inhalt unter einem bestimmten Link herunter und streamt diesen (UTF-8 kodiert) in eine temporäre Datei
+     * in einem bestimmten Ordner. Antwortet der Server, dass sich der Inhalt nicht verändert hat, wird keine Datei
+     * erzeugt. Die Cookies der Anfrage werden für jede Adresse einzeln aus dem {@link WebClient} gelesen und alle
+     * Cookies, die der Server setzt, in diesen übernommen. Weiterleitungen werden nur innerhalb desselben Hosts (und
+     * Protokolls) gefolgt, damit die Cookies nicht an einen anderen Host gesendet werden. Bei einer Weiterleitung zu
+     * einem anderen Host wird die Weiterleitung selbst als Ergebnis zurückgegeben.
+     *
+     * @param url       Der Link, unter dem der Inhalt heruntergeladen werden soll.
+     * @param webClient Der {@link WebClient}, dessen Cookies und TLS-Einstellungen für den Download genutzt werden.
+     * @param headers   Alle zusätzlichen Header der Anfrage (z.B. die Angaben zum letzten Download).
+     * @param directory Der Ordner, in dem die temporäre Datei erzeugt wird.
+     *
+     * @return Das Ergebnis des Downloads.
+     *
+     * @throws IOException Wenn der Inhalt nicht heruntergeladen werden kann.
+     */
+    @NotNull
+    public static TimetableDownload download(
+        @NotNull final URL url,
+        @NotNull final WebClient webClient,
+        @NotNull final Map<String, String> headers,
+        @NotNull final File directory
+    ) throws IOException {
+        URL current = url;
+
+        for (int redirects = 0; ; redirects++) {
+            final HttpURLConnection connection = openConnection(current, webClient, headers);
+
+            try {
+                final int statusCode = connection.getResponseCode();
+                storeCookies(connection, webClient, current);
+
+                if (isRedirect(statusCode)) {
+                    final URL target = getRedirectTarget(connection, current);
+
+                    if (target != null && redirects < MAX_REDIRECTS && isSameOrigin(current, target)) {
+                        current = target;
+                        continue;
+                    }
+
+                    System.out.println("redirect of the download not followed: " + (target == null ? "no target" : target.getHost()));
+                    return new TimetableDownload(statusCode, null, null, null, null);
+                }
+
+                return read(connection, statusCode, directory);
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Öffnet eine Verbindung zu einer bestimmten Adresse, welche Weiterleitungen nicht selbst folgt. Dabei werden alle
+     * Cookies des {@link WebClient} gesetzt, die für diese Adresse gelten. Vertraut der {@link WebClient} jedem
+     * Zertifikat (siehe {@link org.htmlunit.WebClientOptions#setUseInsecureSSL(boolean)}), gilt dies auch für diese
+     * Verbindung.
+     *
+     * @param url       Die Adresse, zu der eine Verbindung geöffnet werden soll.
+     * @param webClient Der {@link WebClient}, dessen Cookies und TLS-Einstellungen genutzt werden.
+     * @param headers   Alle zusätzlichen Header der Anfrage.
+     *
+     * @return Die geöffnete Verbindung.
+     *
+     * @throws IOException Wenn die Verbindung nicht geöffnet werden kann.
+     */
+    @NotNull
+    private static HttpURLConnection openConnection(
+        @NotNull final URL url,
+        @NotNull final WebClient webClient,
+        @NotNull final Map<String, String> headers
+    ) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        connection.setInstanceFollowRedirects(false);
+        connection.setRequestProperty("User-Agent", webClient.getBrowserVersion().getUserAgent());
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        for (@NotNull final Map.Entry<String, String> header : headers.entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+
+        final StringBuilder cookies = new StringBuilder();
+        for (@NotNull final Cookie cookie : webClient.getCookies(url)) {
+            if (cookies.length() > 0) cookies.append("; ");
+            cookies.append(cookie.getName()).append('=').append(cookie.getValue());
+        }
+        if (cookies.length() > 0) connection.setRequestProperty("Cookie", cookies.toString());
+
+        if (connection instanceof HttpsURLConnection && webClient.getOptions().isUseInsecureSSL()) {
+            final HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
+            httpsConnection.setSSLSocketFactory(getInsecureSocketFactory());
+            httpsConnection.setHostnameVerifier((hostname, session) -> true);
+        }
+
+        return connection;
+    }
+
+    /**
+     * Liest den Inhalt der Antwort einer Verbindung und streamt diesen (UTF-8 kodiert) in eine temporäre Datei. Hat
+     * sich der Inhalt laut Server nicht verändert, wird keine Datei erzeugt.
+     *
+     * @param connection Die Verbindung, deren Antwort gelesen werden soll.
+     * @param statusCode Der HTTP-Status, mit dem der Server geantwortet hat.
+     * @param directory  Der Ordner, in dem die temporäre Datei erzeugt wird.
+     *
+     * @return Das Ergebnis des Downloads.
+     *
+     * @throws IOException Wenn der Inhalt nicht gelesen werden kann.
+     */
+    @NotNull
+    private static TimetableDownload read(
+        @NotNull final HttpURLConnection connection,
+        final int statusCode,
+        @NotNull final File directory
+    ) throws IOException {
+        final String etag = connection.getHeaderField("ETag");
+        final String lastModified = connection.getHeaderField("Last-Modified");
+
+        if (statusCode == NOT_MODIFIED) {
+            return new TimetableDownload(statusCode, null, null, etag, lastModified);
+        }
+
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (@NotNull final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        final File temporaryFile = File.createTempFile("stundenplan_", ".tmp", directory);
+
+        try (
+            final InputStream input = getInputStream(connection);
+            final OutputStream output = new DigestOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporaryFile.toPath()), BUFFER_SIZE),
+                digest
+            )
+        ) {
+            transfer(input, output, getCharset(connection.getContentType()));
+        } catch (@NotNull final IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile.toPath());
+            throw e;
+        }
+
+        return new TimetableDownload(statusCode, temporaryFile, digest.digest(), etag, lastModified);
+    }
+
+    /**
+     * Übernimmt alle Cookies, die der Server in der Antwort einer Verbindung gesetzt hat, in einen {@link WebClient}.
+     *
+     * @param connection Die Verbindung, deren Cookies übernommen werden sollen.
+     * @param webClient  Der {@link WebClient}, in den die Cookies übernommen werden.
+     * @param url        Die Adresse, von der die Antwort stammt.
+     */
+    private static void storeCookies(
+        @NotNull final HttpURLConnection connection,
+        @NotNull final WebClient webClient,
+        @NotNull final URL url
+    ) {
+        for (@NotNull final Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+            if (!"Set-Cookie".equalsIgnoreCase(header.getKey())) continue;
+
+            for (@NotNull final String cookie : header.getValue()) {
+                webClient.addCookie(cookie, url, null);
+            }
+        }
+    }
+
+    /**
+     * Prüft, ob ein HTTP-Status eine Weiterleitung beschreibt.
+     *
+     * @param statusCode Der HTTP-Status.
+     *
+     * @return Wenn der HTTP-Status eine Weiterleitung beschreibt {@code true}, ansonsten {@code false}.
+     */
+    private static boolean isRedirect(final int statusCode) {
+        return statusCode == 301 || statusCode == 302 || statusCode == 303 || statusCode == 307 || statusCode == 308;
+    }
+
+    /**
+     * Gibt das Ziel einer Weiterleitung zurück, welches relativ zur Adresse der Anfrage aufgelöst wird.
+     *
+     * @param connection Die Verbindung, deren Antwort eine Weiterleitung ist.
+     * @param url        Die Adresse der Anfrage.
+     *
+     * @return Das Ziel der Weiterleitung oder {@code null}, wenn dieses fehlt oder ungültig ist.
+     */
+    @Nullable
+    private static URL getRedirectTarget(
+        @NotNull final HttpURLConnection connection,
+        @NotNull final URL url
+    ) {
+        final String location = connection.getHeaderField("Location");
+        if (location == null) return null;
+
+        try {
+            return new URL(url, location);
+        } catch (@NotNull final MalformedURLException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Prüft, ob zwei Adressen dasselbe Protokoll und denselben Host besitzen.
+     *
+     * @param first  Die erste Adresse.
+     * @param second Die zweite Adresse.
+     *
+     * @return Wenn beide Adressen dasselbe Protokoll und denselben Host besitzen {@code true}, ansonsten {@code false}.
+     */
+    private static boolean isSameOrigin(
+        @NotNull final URL first,
+        @NotNull final URL second
+    ) {
+        return first.getProtocol().equalsIgnoreCase(second.getProtocol()) && first.getHost().equalsIgnoreCase(second.getHost());
+    }
+
+    /**
+     * Gibt eine {@link SSLSocketFactory} zurück, welche jedem Zertifikat vertraut. Diese wird nur genutzt, wenn auch der
+     * {@link WebClient} des Logins jedem Zertifikat vertraut.
+     *
+     * @return Eine {@link SSLSocketFactory}, welche jedem Zertifikat vertraut.
+     *
+     * @throws IOException Wenn die {@link SSLSocketFactory} nicht erzeugt werden kann.
+     */
+    @NotNull
+    private static synchronized SSLSocketFactory getInsecureSocketFactory() throws IOException {
+        if (insecureSocketFactory != null) return insecureSocketFactory;
+
+        final TrustManager trustAll = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(final X509Certificate[] chain, final String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(final X509Certificate[] chain, final String authType) {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+
+        try {
+            final SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[]{trustAll}, null);
+            insecureSocketFactory = context.getSocketFactory();
+        } catch (@NotNull final GeneralSecurityException e) {
+            throw new IOException(e);
+        }
+
+        return insecureSocketFactory;
+    }
+
+    /**
+     * Gibt den (gegebenenfalls entpackten) Inhalt der Antwort einer Verbindung zurück.
+     *
+     * @param connection Die Verbindung, deren Inhalt zurückgegeben werden soll.
+     *
+     * @return Der (gegebenenfalls entpackte) Inhalt der Antwort.
+     *
+     * @throws IOException Wenn der Inhalt nicht gelesen werden kann.
+     */
+    @NotNull
+    private static InputStream getInputStream(@NotNull final HttpURLConnection connection) throws IOException {
+        InputStream input = (connection.getResponseCode() >= 400) ? connection.getErrorStream() : connection.getInputStream();
+        if (input == null) input = new ByteArrayInputStream(new byte[0]);
+
+        if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+            return new GZIPInputStream(input, BUFFER_SIZE);
+        }
+
+        return input;
+    }
+
+    /**
+     * Überträgt den gesamten Inhalt eines {@link InputStream} in einen {@link OutputStream}. Ist der Inhalt nicht UTF-8
+     * kodiert, wird er dabei nach UTF-8 umkodiert.
+     *
+     * @param input   Der {@link InputStream}, aus dem gelesen wird.
+     * @param output  Der {@link OutputStream}, in den geschrieben wird.
+     * @param charset Die Kodierung des Inhalts oder {@code null}, wenn diese nicht angegeben ist (UTF-8).
+     *
+     * @throws IOException Wenn der Inhalt nicht übertragen werden kann.
+     */
+    private static void transfer(
+        @NotNull final InputStream input,
+        @NotNull final OutputStream output,
+        @Nullable final Charset charset
+    ) throws IOException {
+        if (charset == null || charset.equals(StandardCharsets.UTF_8)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return;
+        }
+
+        final Reader reader = new InputStreamReader(input, charset);
+        final Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        final char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            writer.write(buffer, 0, read);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Gibt die Kodierung zurück, die im Content-Type einer Antwort angegeben ist.
+     *
+     * @param contentType Der Content-Type der Antwort.
+     *
+     * @return Die Kodierung oder {@code null}, wenn keine (gültige) Kodierung angegeben ist.
+     */
+    @Nullable
+    private static Charset getCharset(@Nullable final String contentType) {
+        if (contentType == null) return null;
+
+        for (@NotNull final String parameter : contentType.split(";")) {
+            final String trimmed = parameter.trim();
+            if (!trimmed.toLowerCase(Locale.ROOT).startsWith("charset=")) continue;
+
+            try {
+                return Charset.forName(trimmed.substring("charset=".length()).replace("\"", "").trim());
+            } catch (@NotNull final IllegalCharsetNameException | UnsupportedCharsetException ignored) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+    //</editor-fold>
+
+}
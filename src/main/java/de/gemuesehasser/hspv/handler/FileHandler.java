@@ -0,0 +1,40 @@
+package de.gemuesehasser.hspv.handler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Mithilfe des {@link FileHandler} lassen sich Dateien, die zunächst vollständig in eine temporäre Datei geschrieben
+ * wurden, an ihren eigentlichen Ort verschieben, sodass dort niemals eine unvollständige Datei liegt.
+ */
+public final class FileHandler {
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Verschiebt eine Datei an einen anderen Ort und ersetzt dabei eine eventuell vorhandene Datei. Sofern das
+     * Dateisystem dies unterstützt, geschieht dies atomar.
+     *
+     * @param source Die Datei, die verschoben werden soll.
+     * @param target Der Ort, an den die Datei verschoben werden soll.
+     *
+     * @throws IOException Wenn die Datei nicht verschoben werden kann.
+     */
+    public static void moveAtomically(
+        @NotNull final File source,
+        @NotNull final File target
+    ) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (@NotNull final AtomicMoveNotSupportedException ignored) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    //</editor-fold>
+
+}
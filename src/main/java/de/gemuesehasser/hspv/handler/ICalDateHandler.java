@@ -0,0 +1,188 @@
+package de.gemuesehasser.hspv.handler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mithilfe des {@link ICalDateHandler} lassen sich Datums-Werte (DATE und DATE-TIME) aus einer ICS-Datei direkt in ein
+ * {@link LocalDateTime Datum} in der lokalen Zeitzone umwandeln. Da diese Werte immer eine feste Breite haben, werden
+ * die einzelnen Ziffern direkt gelesen, ohne dafür einen Formatter zu benötigen. Die Regeln der genutzten Zeitzonen
+ * werden dabei zwischengespeichert.
+ */
+public final class ICalDateHandler {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Die Länge eines DATE-Wertes (yyyyMMdd). */
+    private static final int DATE_LENGTH = 8;
+    /** Die Länge eines DATE-TIME-Wertes ohne Zeitzone (yyyyMMdd'T'HHmmss). */
+    private static final int DATE_TIME_LENGTH = 15;
+    /** Die Regeln der lokalen Zeitzone, in die alle Datums-Werte umgewandelt werden. */
+    @NotNull
+    private static final ZoneRules LOCAL_RULES = ZoneId.systemDefault().getRules();
+    /** Alle bereits aufgelösten Regeln der Zeitzonen, die über den TZID-Parameter angegeben wurden. */
+    @NotNull
+    private static final ConcurrentHashMap<String, ZoneRules> ZONE_RULES = new ConcurrentHashMap<>();
+    //</editor-fold>
+
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Wandelt einen Datums-Wert in Form eines Textes in ein {@link LocalDateTime Datum} in der lokalen Zeitzone um.
+     *
+     * @param value Der Datums-Wert (DATE oder DATE-TIME, optional mit 'Z' für UTC).
+     * @param tzid  Der Wert des TZID-Parameters der Eigenschaft oder {@code null}, wenn keiner angegeben ist.
+     *
+     * @return Das {@link LocalDateTime Datum} in der lokalen Zeitzone.
+     */
+    @NotNull
+    public static LocalDateTime parse(
+        @NotNull final String value,
+        @Nullable final String tzid
+    ) {
+        final byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        return parse(bytes, 0, bytes.length, tzid);
+    }
+
+    /**
+     * Wandelt einen Datums-Wert, welcher in einem bestimmten Bereich eines Byte-Arrays steht, in ein
+     * {@link LocalDateTime Datum} in der lokalen Zeitzone um.
+     *
+     * @param value Das Byte-Array, in welchem der Datums-Wert steht.
+     * @param from  Die Position, an der der Datums-Wert beginnt (inklusive).
+     * @param to    Die Position, an der der Datums-Wert endet (exklusive).
+     * @param tzid  Der Wert des TZID-Parameters der Eigenschaft oder {@code null}, wenn keiner angegeben ist.
+     *
+     * @return Das {@link LocalDateTime Datum} in der lokalen Zeitzone.
+     */
+    @NotNull
+    public static LocalDateTime parse(
+        final byte @NotNull [] value,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int from,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int to,
+        @Nullable final String tzid
+    ) {
+        final int length = to - from;
+        if (length < DATE_LENGTH) {
+            throw new DateTimeException("invalid ics date value: " + new String(value, from, length, StandardCharsets.US_ASCII));
+        }
+
+        final int year = getNumber(value, from, 4);
+        final int month = getNumber(value, from + 4, 2);
+        final int day = getNumber(value, from + 6, 2);
+
+        if (length == DATE_LENGTH) {
+            return LocalDateTime.of(year, month, day, 0, 0);
+        }
+
+        if ((length != DATE_TIME_LENGTH && length != DATE_TIME_LENGTH + 1) || value[from + DATE_LENGTH] != 'T') {
+            throw new DateTimeException("invalid ics date value: " + new String(value, from, length, StandardCharsets.US_ASCII));
+        }
+
+        final LocalDateTime date = LocalDateTime.of(
+            year,
+            month,
+            day,
+            getNumber(value, from + 9, 2),
+            getNumber(value, from + 11, 2),
+            getNumber(value, from + 13, 2)
+        );
+
+        if (length == DATE_TIME_LENGTH + 1) {
+            if (value[to - 1] != 'Z') {
+                throw new DateTimeException("invalid ics date value: " + new String(value, from, length, StandardCharsets.US_ASCII));
+            }
+
+            return toLocal(date.toEpochSecond(ZoneOffset.UTC));
+        }
+
+        if (tzid == null) return date;
+
+        final ZoneRules rules = getZoneRules(tzid);
+        if (rules == LOCAL_RULES) return date;
+
+        return toLocal(date.toEpochSecond(rules.getOffset(date)));
+    }
+
+    /**
+     * Wandelt einen Zeitpunkt in Sekunden seit der Epoche in ein {@link LocalDateTime Datum} in der lokalen Zeitzone
+     * um.
+     *
+     * @param epochSecond Der Zeitpunkt in Sekunden seit der Epoche.
+     *
+     * @return Das {@link LocalDateTime Datum} in der lokalen Zeitzone.
+     */
+    @NotNull
+    private static LocalDateTime toLocal(final long epochSecond) {
+        final ZoneOffset offset = LOCAL_RULES.isFixedOffset()
+            ? LOCAL_RULES.getOffset(Instant.EPOCH)
+            : LOCAL_RULES.getOffset(Instant.ofEpochSecond(epochSecond));
+
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, offset);
+    }
+
+    /**
+     * Gibt die (zwischengespeicherten) Regeln einer Zeitzone zurück. Ist die Zeitzone unbekannt, werden die Regeln der
+     * lokalen Zeitzone zurückgegeben, wodurch der Wert unverändert übernommen wird.
+     *
+     * @param tzid Der Wert des TZID-Parameters.
+     *
+     * @return Die Regeln der Zeitzone.
+     */
+    @NotNull
+    private static ZoneRules getZoneRules(@NotNull final String tzid) {
+        final ZoneRules cachedRules = ZONE_RULES.get(tzid);
+        if (cachedRules != null) return cachedRules;
+
+        ZoneRules rules;
+        try {
+            rules = ZoneId.of(tzid).getRules();
+        } catch (@NotNull final DateTimeException ignored) {
+            rules = LOCAL_RULES;
+        }
+
+        // identical rules are replaced by the local rules, so that they can be compared by identity afterwards
+        if (rules.equals(LOCAL_RULES)) rules = LOCAL_RULES;
+
+        ZONE_RULES.putIfAbsent(tzid, rules);
+        return rules;
+    }
+
+    /**
+     * Liest eine positive Zahl mit einer festen Anzahl an Ziffern aus einem Byte-Array.
+     *
+     * @param value  Das Byte-Array, in welchem die Zahl steht.
+     * @param from   Die Position, an der die Zahl beginnt.
+     * @param digits Die Anzahl an Ziffern der Zahl.
+     *
+     * @return Die gelesene Zahl.
+     */
+    @Range(from = 0, to = Integer.MAX_VALUE)
+    private static int getNumber(
+        final byte @NotNull [] value,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int from,
+        @Range(from = 1, to = 9) final int digits
+    ) {
+        int number = 0;
+        for (int i = from; i < from + digits; i++) {
+            final int digit = value[i] - '0';
+            if (digit < 0 || digit > 9) throw new DateTimeException("invalid digit in ics date value.");
+
+            number = number * 10 + digit;
+        }
+
+        return number;
+    }
+    //</editor-fold>
+
+}
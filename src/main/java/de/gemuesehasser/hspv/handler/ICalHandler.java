@@ -1,34 +1,54 @@
 package de.gemuesehasser.hspv.handler;
 
+import de.gemuesehasser.hspv.constant.PropertyType;
 import de.gemuesehasser.hspv.object.LVS;
+import de.gemuesehasser.hspv.object.LvsChangeSet;
+import de.gemuesehasser.hspv.object.LvsIndex;
+import de.gemuesehasser.hspv.object.TimetableDownload;
+import lombok.Getter;
 import lombok.SneakyThrows;
 import net.fortuna.ical4j.data.CalendarBuilder;
-import net.fortuna.ical4j.data.ParserException;
 import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Parameter;
 import net.fortuna.ical4j.model.Property;
 import net.fortuna.ical4j.model.component.CalendarComponent;
+import org.apache.commons.io.IOUtils;
 import org.htmlunit.ElementNotFoundException;
 import org.htmlunit.WebClient;
-import org.htmlunit.WebResponse;
 import org.htmlunit.html.HtmlAnchor;
 import org.htmlunit.html.HtmlForm;
 import org.htmlunit.html.HtmlPage;
+import org.htmlunit.util.Cookie;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.net.Socket;
+import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Mithilfe dieses Handlers lassen sich alle Lehrveranstaltungen aus einer ICS-Datei laden und in Form einer
- * {@link LinkedHashMap} zurückgeben.
+ * Mithilfe dieses Handlers lassen sich alle Lehrveranstaltungen aus einer ICS-Datei laden und in Form eines
+ * {@link LvsIndex} zurückgeben.
  */
 public final class ICalHandler {
 
@@ -51,6 +71,17 @@ public final class ICalHandler {
     private static final String TIMETABLE_URL_LECTURER = (
             "https://mvc.antrago.hspv.nrw.de/docentIcsDownloadLink"
     );
+    /** Der Pfad, unter dem der ETag des zuletzt heruntergeladenen Stundenplans eines Benutzers gespeichert wird. */
+    @NotNull
+    private static final String ETAG_PATH = "etag";
+    /** Der Pfad, unter dem das Änderungsdatum des zuletzt heruntergeladenen Stundenplans eines Benutzers gespeichert wird. */
+    @NotNull
+    private static final String LAST_MODIFIED_PATH = "lastModified";
+    /** Der Pfad, unter dem der Hash-Wert des zuletzt heruntergeladenen Stundenplans eines Benutzers gespeichert wird. */
+    @NotNull
+    private static final String DIGEST_PATH = "digest";
+    /** Die Anzahl an Lehrveranstaltungen, ab der ein Stundenplan spaltenweise (siehe {@link LvsIndex#compact()}) abgelegt wird. */
+    private static final int COMPACT_THRESHOLD = 10_000;
     //</editor-fold>
 
 
@@ -61,8 +92,12 @@ public final class ICalHandler {
     /** Das Passwort des Nutzers auf der HSPV-Website. */
     @NotNull
     private final String password;
-    /** Der Kalender, welche alle Einträge der ICS-Datei (Kalender-Datei) enthält. */
-    private Calendar calendar;
+    /** Ob sich der Stundenplan beim letzten Download gegenüber der lokalen Stundenplan-Datei verändert hat. */
+    @Getter
+    private boolean timetableChanged;
+    /** Ob der Login beim letzten Laden des Stundenplans von der HSPV-Website abgelehnt wurde. */
+    @Getter
+    private boolean loginRejected;
     //</editor-fold>
 
 
@@ -70,7 +105,7 @@ public final class ICalHandler {
 
     /**
      * Erzeugt eine neue und vollständig unabhängige Instanz eines {@link ICalHandler}. Mithilfe dieses Handlers lassen
-     * sich alle Lehrveranstaltungen aus einer ICS-Datei laden und in Form einer {@link LinkedHashMap} zurückgeben.
+     * sich alle Lehrveranstaltungen aus einer ICS-Datei laden und in Form eines {@link LvsIndex} zurückgeben.
      *
      * @param username Der Benutzername des Nutzers auf der HSPV-Website.
      * @param password Das Passwort des Nutzers auf der HSPV-Website.
@@ -87,167 +122,507 @@ public final class ICalHandler {
 
     /**
      * Lädt die Kalender Datei mit den Lehrveranstaltungen des jeweiligen Nutzers von der HSPV-Website oder zuerst lokal,
-     * wenn bereits eine Stundenplan-Datei für den Benutzer existiert.
+     * wenn bereits eine Stundenplan-Datei für den Benutzer existiert. Für einen bestehenden Nutzer wird dabei nicht auf
+     * die Prüfung der Verbindung gewartet, da in jedem Fall zuerst der lokale Stundenplan angezeigt wird.
      *
      * @return Es wird ein ganzzahliger Wert zurückgegeben, welcher den Ablauf des Prozesses repräsentiert.
      */
     public int loadICalFile() {
-        try {
-            if (!isConnectionPresent()) {
-                if (UserHandler.exists(username)) {
-                    final FileInputStream calenderInput = new FileInputStream(UserHandler.getTimetable(username));
-                    final CalendarBuilder builder = new CalendarBuilder();
-                    this.calendar = builder.build(calenderInput);
-                    System.out.println("local calender built with local timetable.");
-                }
-
-                return NO_CONNECTION_ERROR;
-            }
-
-            if (UserHandler.exists(username)) {
-                final FileInputStream calenderInput = new FileInputStream(UserHandler.getTimetable(username));
-                final CalendarBuilder builder = new CalendarBuilder();
-                this.calendar = builder.build(calenderInput);
-                System.out.println("local calender built with local timetable.");
-                return LOCAL_CALENDAR_BUILT;
-            }
+        if (UserHandler.exists(username)) {
+            System.out.println("local calender selected with local timetable.");
+            return LOCAL_CALENDAR_BUILT;
+        }
 
-            if (!loadAntragoTimetable()) return WRONG_LOGIN;
-        } catch (@NotNull final IOException | ParserException e) {
-            throw new RuntimeException(e);
+        boolean connected = ConnectionHandler.isConnectionPresent();
+        if (!connected) {
+            // a new user cannot fall back to a local timetable, so a cached negative result is checked once more
+            ConnectionHandler.invalidate();
+            connected = ConnectionHandler.isConnectionPresent();
         }
 
+        if (!connected) return NO_CONNECTION_ERROR;
+
+        if (!loadAntragoTimetable()) return loginRejected ? WRONG_LOGIN : NO_CONNECTION_ERROR;
+
         return NEW_USER_LOGIN;
     }
 
     /**
-     * Lädt die Kalender Datei von der Antrago Webseite und speichert diese in der lokalen Kalender-Datei ab.
+     * Lädt die Kalender Datei von der Antrago Webseite und speichert diese in der lokalen Kalender-Datei ab. Dabei wird
+     * der Stundenplan nur dann erneut übertragen, wenn er sich laut Server verändert hat, und nur dann neu geschrieben,
+     * wenn sich sein Inhalt tatsächlich verändert hat (siehe {@link #isTimetableChanged()}). Existiert bereits eine
+     * gültige Sitzung des Nutzers, wird der Stundenplan direkt mit dieser heruntergeladen, ansonsten wird der
+     * vollständige Login-Ablauf durchlaufen. Dabei wird (sofern vorhanden) der bereits im Hintergrund vorbereitete
+     * {@link WebClient} des {@link WarmupHandler} genutzt. Enthält die Antwort keinen Kalender (z.B. eine Fehlerseite),
+     * wird sie verworfen und die lokale Stundenplan-Datei bleibt unverändert. Für einen neuen Nutzer wird der Hash des
+     * Passworts noch vor dem Stundenplan dauerhaft gespeichert, da der Nutzer sonst bei einem späteren Login lokal nicht
+     * mehr geprüft werden könnte.
+     *
+     * @return Wenn der Stundenplan erfolgreich geladen wurde {@code true}, ansonsten (auch wenn die Verbindung
+     *     fehlschlägt) {@code false}. Ob der Login abgelehnt wurde, lässt sich anschließend mit
+     *     {@link #isLoginRejected()} abfragen.
      */
     @SneakyThrows
     public boolean loadAntragoTimetable() {
-        final URL timetableUrlMember = new URL(TIMETABLE_URL_MEMBER);
-        final URL timetableUrlLecturer = new URL(TIMETABLE_URL_LECTURER);
-
-        try (final WebClient webClient = new WebClient()) {
-            webClient.getOptions().setThrowExceptionOnScriptError(false);
-            webClient.getOptions().setJavaScriptEnabled(false);
-            webClient.getOptions().setRedirectEnabled(true);
-            webClient.getOptions().setCssEnabled(false);
-            webClient.getOptions().setUseInsecureSSL(true);
-            webClient.getOptions().setThrowExceptionOnFailingStatusCode(false);
-            webClient.getCookieManager().setCookiesEnabled(true);
-
-            HtmlPage loginPage = webClient.getPage("https://www.hspv.nrw.de/anmelden");
-            System.out.println("HSPV-Login-Page opened.");
-
-            HtmlForm form = loginPage.getForms().get(0);
-            form.getInputByName("user").type(this.username);
-            form.getInputByName("pass").type(this.password);
-
-            form.getInputByName("submit").click();
-            System.out.println("User " + username + " logged in.");
-
-            final HtmlPage tools = webClient.getPage("https://www.hspv.nrw.de/webtools");
-            System.out.println("webtools opened.");
-
-            try {
-                final HtmlAnchor lvsAnchor = tools.getAnchorByText("Lehrveranstaltungsplan");
-                final HtmlPage antragoPage = lvsAnchor.click();
-
-                final WebResponse response = webClient.getPage(
-                        antragoPage.getUrl().toString().contains("teilnehmerportal") ? timetableUrlMember : timetableUrlLecturer
-                ).getWebResponse();
-                response.getWebRequest().setDefaultResponseContentCharset(StandardCharsets.UTF_8);
-                System.out.println("get response from antrago calender");
-
-                UserHandler.saveTimetable(username, response.getContentAsString());
-                System.out.println("download completed from antrago.");
-            } catch (@NotNull final ElementNotFoundException ignored) {
+        final long start = System.currentTimeMillis();
+        this.loginRejected = false;
+
+        try (final WebClient webClient = WarmupHandler.getWebClient()) {
+            if (loadWithSession(webClient)) return true;
+
+            final URL timetableUrl = login(webClient);
+            if (timetableUrl == null) {
+                this.loginRejected = true;
+                return false;
+            }
+
+            // the hash of the now verified password is calculated while the timetable is downloaded
+            final CompletableFuture<Void> passwordSaved = UserHandler.exists(username)
+                ? CompletableFuture.completedFuture(null)
+                : PasswordHandler.saveHashedPasswordAsync(username, password);
+
+            final TimetableDownload download = requestTimetable(webClient, timetableUrl);
+            if (!download.isNotModified() && !isCalendar(download)) {
+                System.out.println("antrago responded without a calender (status " + download.getStatusCode() + ").");
+                download.discard();
                 return false;
             }
+
+            // the password hash has to be stored before the timetable, otherwise the user would be locked out locally
+            passwordSaved.join();
+            PropertyType.DATA_FILE.flush();
+
+            saveTimetable(download);
+            SessionHandler.save(username, timetableUrl, webClient.getCookieManager().getCookies());
+        } catch (@NotNull final IOException e) {
+            System.out.println("failed to load antrago timetable: " + e.getMessage());
+            return false;
         }
 
-        final FileInputStream calenderInput = new FileInputStream(UserHandler.getTimetable(username));
-        final CalendarBuilder builder = new CalendarBuilder();
-        this.calendar = builder.build(calenderInput);
-        System.out.println("local calender built.");
+        System.out.println("antrago timetable loaded after " + (System.currentTimeMillis() - start) + " ms.");
+        return true;
+    }
+
+    /**
+     * Versucht den Stundenplan mit der gespeicherten Sitzung des Nutzers herunterzuladen. Die Sitzung wird nur für
+     * Nutzer genutzt, deren Passwort bereits lokal geprüft werden kann. Ist die Sitzung abgelaufen, wird sie gelöscht.
+     *
+     * @param webClient Der {@link WebClient}, in den die Sitzung geladen wird.
+     *
+     * @return Wenn der Stundenplan mit der gespeicherten Sitzung geladen wurde {@code true}, ansonsten {@code false}.
+     */
+    @SneakyThrows
+    private boolean loadWithSession(@NotNull final WebClient webClient) {
+        if (!UserHandler.exists(username)) return false;
+
+        // keep the cookies of the prefetched login page in case the stored session has expired
+        final Set<Cookie> warmupCookies = new LinkedHashSet<>(webClient.getCookieManager().getCookies());
+        final URL timetableUrl = SessionHandler.load(username, webClient.getCookieManager());
+        if (timetableUrl == null) return false;
+
+        final TimetableDownload download = requestTimetable(webClient, timetableUrl);
+        if (!download.isNotModified() && !isCalendar(download)) {
+            System.out.println("stored session expired.");
+            download.discard();
+            SessionHandler.delete(username);
+            webClient.getCookieManager().clearCookies();
+            warmupCookies.forEach(webClient.getCookieManager()::addCookie);
+            return false;
+        }
+
+        System.out.println("stored session of " + username + " reused.");
+        saveTimetable(download);
+        SessionHandler.save(username, timetableUrl, webClient.getCookieManager().getCookies());
 
         return true;
     }
 
     /**
-     * Gibt eine {@link LinkedHashMap} mit jeweils der Startzeit der jeweiligen Lehrveranstaltung und des jeweiligen
-     * Objekts der Veranstaltung zurück.
+     * Durchläuft den vollständigen Login-Ablauf auf der HSPV-Website und gibt den Download-Link des Stundenplans
+     * zurück, welcher für diesen Nutzer (Student oder Dozent) gilt.
+     *
+     * @param webClient Der {@link WebClient}, mit dem der Login durchgeführt wird.
+     *
+     * @return Der Download-Link des Stundenplans oder {@code null}, wenn der Login fehlgeschlagen ist.
+     */
+    @Nullable
+    @SneakyThrows
+    private URL login(@NotNull final WebClient webClient) {
+        HtmlPage loginPage = WarmupHandler.getLoginPage(webClient);
+        System.out.println("HSPV-Login-Page opened.");
+
+        HtmlForm form = loginPage.getForms().get(0);
+        form.getInputByName("user").type(this.username);
+        form.getInputByName("pass").type(this.password);
+
+        form.getInputByName("submit").click();
+        System.out.println("User " + username + " logged in.");
+
+        final HtmlPage tools = webClient.getPage("https://www.hspv.nrw.de/webtools");
+        System.out.println("webtools opened.");
+
+        try {
+            final HtmlAnchor lvsAnchor = tools.getAnchorByText("Lehrveranstaltungsplan");
+            final HtmlPage antragoPage = lvsAnchor.click();
+
+            return new URL(
+                antragoPage.getUrl().toString().contains("teilnehmerportal") ? TIMETABLE_URL_MEMBER : TIMETABLE_URL_LECTURER
+            );
+        } catch (@NotNull final ElementNotFoundException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Lädt den Stundenplan unter einem bestimmten Download-Link über eine einfache HTTP-Verbindung mit den Cookies der
+     * aktuellen Sitzung herunter. Der Inhalt wird dabei direkt in eine temporäre Datei im Cache-Ordner gestreamt.
      *
-     * @return Eine {@link LinkedHashMap} mit jeweils der Startzeit der jeweiligen Lehrveranstaltung und des jeweiligen
-     *     Objekts der Veranstaltung.
+     * @param webClient    Der {@link WebClient}, dessen Sitzung für den Download genutzt wird.
+     * @param timetableUrl Der Download-Link des Stundenplans.
+     *
+     * @return Das Ergebnis des Downloads.
+     *
+     * @throws IOException Wenn der Stundenplan nicht heruntergeladen werden kann.
      */
     @NotNull
-    public LinkedHashMap<LocalDateTime, LVS> getLvs() {
-        final LinkedHashMap<LocalDateTime, LVS> lvsMap = new LinkedHashMap<>();
+    private TimetableDownload requestTimetable(
+        @NotNull final WebClient webClient,
+        @NotNull final URL timetableUrl
+    ) throws IOException {
+        final Map<String, String> headers = new LinkedHashMap<>();
+        addConditionalHeaders(headers);
+
+        final TimetableDownload download = DownloadHandler.download(
+            timetableUrl,
+            webClient,
+            headers,
+            UserHandler.getTimetable(username).getParentFile()
+        );
+        System.out.println("get response from antrago calender");
+
+        return download;
+    }
 
-        for (@NotNull final CalendarComponent component : calendar.getComponents()) {
-            final Optional<Property> startProperty = Optional.ofNullable(component.getProperty("DTSTART"));
-            final Optional<Property> endProperty = Optional.ofNullable(component.getProperty("DTEND"));
-            final Optional<Property> descriptionProperty = Optional.ofNullable(component.getProperty("DESCRIPTION"));
+    /**
+     * Prüft, ob ein Download einen Kalender enthält und nicht etwa die Login-Seite, auf die bei einer abgelaufenen
+     * Sitzung weitergeleitet wird.
+     *
+     * @param download Das Ergebnis des Downloads.
+     *
+     * @return Wenn der Download einen Kalender enthält {@code true}, ansonsten {@code false}.
+     */
+    @SneakyThrows
+    private static boolean isCalendar(@NotNull final TimetableDownload download) {
+        if (download.getStatusCode() / 100 != 2 || download.getFile() == null) return false;
 
-            if (!startProperty.isPresent() || !endProperty.isPresent() || !descriptionProperty.isPresent()) continue;
+        final byte[] head = new byte[64];
+        final int length;
+        try (final InputStream input = Files.newInputStream(download.getFile().toPath())) {
+            length = IOUtils.read(input, head);
+        }
 
-            final LocalDateTime startDate = getDateFromString(startProperty.get().getValue());
-            final LocalDateTime endDate = getDateFromString(endProperty.get().getValue());
-            final String description = descriptionProperty.get().getValue();
+        return new String(head, 0, length, StandardCharsets.UTF_8).replace("\uFEFF", "").trim().startsWith("BEGIN:VCALENDAR");
+    }
+
+    /**
+     * Fügt den Headern einer Anfrage für den Stundenplan die Angaben zum zuletzt heruntergeladenen Stundenplan hinzu,
+     * sodass der Server den Stundenplan nicht erneut übertragen muss, wenn dieser sich nicht verändert hat.
+     *
+     * @param headers Die Header der Anfrage für den Stundenplan.
+     */
+    private void addConditionalHeaders(@NotNull final Map<String, String> headers) {
+        if (!UserHandler.exists(username)) return;
+
+        final String etag = getDownloadProperty(ETAG_PATH);
+        final String lastModified = getDownloadProperty(LAST_MODIFIED_PATH);
+
+        if (etag != null) headers.put("If-None-Match", etag);
+        if (lastModified != null) headers.put("If-Modified-Since", lastModified);
+    }
+
+    /**
+     * Übernimmt den heruntergeladenen Stundenplan als lokale Stundenplan-Datei, sofern sich dieser gegenüber dem
+     * zuletzt heruntergeladenen Stundenplan verändert hat. Die temporäre Datei wird dabei atomar an den Platz der
+     * Stundenplan-Datei verschoben; ist der Inhalt unverändert, wird sie verworfen.
+     *
+     * @param download Das Ergebnis des Downloads.
+     */
+    @SneakyThrows
+    private void saveTimetable(@NotNull final TimetableDownload download) {
+        final File timetable = UserHandler.getTimetable(username);
+
+        if (download.isNotModified() && timetable.exists()) {
+            this.timetableChanged = false;
+            System.out.println("antrago calender not modified.");
+            return;
+        }
+
+        if (download.getFile() == null || download.getDigest() == null) {
+            this.timetableChanged = false;
+            return;
+        }
+
+        final String digest = Base64.getEncoder().encodeToString(download.getDigest());
+        String previousDigest = getDownloadProperty(DIGEST_PATH);
+        if (previousDigest == null && timetable.exists()) {
+            previousDigest = Base64.getEncoder().encodeToString(SnapshotHandler.getHash(timetable));
+        }
+
+        this.timetableChanged = !digest.equals(previousDigest) || !timetable.exists();
+        if (timetableChanged) {
+            FileHandler.moveAtomically(download.getFile(), timetable);
+            System.out.println("download completed from antrago.");
+        } else {
+            download.discard();
+            System.out.println("antrago calender unchanged.");
+        }
+
+        final Properties properties = PropertyType.DOWNLOAD_FILE.getProperties();
+        setDownloadProperty(properties, ETAG_PATH, download.getEtag());
+        setDownloadProperty(properties, LAST_MODIFIED_PATH, download.getLastModified());
+        setDownloadProperty(properties, DIGEST_PATH, digest);
+        PropertyType.DOWNLOAD_FILE.saveProperties();
+    }
 
-            final LVS lvs = new LVS(startDate, endDate, description);
-            lvsMap.put(startDate, lvs);
+    /**
+     * Gibt eine bestimmte Angabe zum zuletzt heruntergeladenen Stundenplan dieses Benutzers zurück.
+     *
+     * @param path Der Pfad, unter dem die Angabe gespeichert ist.
+     *
+     * @return Die Angabe zum zuletzt heruntergeladenen Stundenplan oder {@code null}, wenn diese nicht existiert.
+     */
+    @Nullable
+    private String getDownloadProperty(@NotNull final String path) {
+        return PropertyType.DOWNLOAD_FILE.getProperties().getProperty(username + "." + path);
+    }
+
+    /**
+     * Setzt eine bestimmte Angabe zum zuletzt heruntergeladenen Stundenplan dieses Benutzers oder entfernt diese, wenn
+     * der Server sie nicht mitgesendet hat.
+     *
+     * @param properties Die {@link Properties}, in denen die Angabe gesetzt werden soll.
+     * @param path       Der Pfad, unter dem die Angabe gespeichert wird.
+     * @param value      Der Wert der Angabe oder {@code null}, wenn diese entfernt werden soll.
+     */
+    private void setDownloadProperty(
+        @NotNull final Properties properties,
+        @NotNull final String path,
+        @Nullable final String value
+    ) {
+        if (value == null || value.isEmpty()) {
+            properties.remove(username + "." + path);
+            return;
         }
 
-        return lvsMap;
+        properties.setProperty(username + "." + path, value);
     }
 
     /**
-     * Gibt ein {@link LocalDateTime Datum} auf der Grundlage eines Datums in Form eines {@link String Textes} zurück.
+     * Gibt einen {@link LvsIndex} mit allen Lehrveranstaltungen der ICS-Datei zurück. Existiert ein passender {@link SnapshotHandler Schnappschuss} zur aktuellen
+     * ICS-Datei, werden die Lehrveranstaltungen direkt aus diesem geladen. Ansonsten wird die lokale ICS-Datei in einem
+     * einzigen Durchlauf mithilfe des {@link ICalStreamHandler} gelesen und der Schnappschuss neu erzeugt. Nur wenn
+     * dies fehlschlägt, wird die Datei vollständig mit ical4j eingelesen. Enthält der Stundenplan mindestens
+     * {@value COMPACT_THRESHOLD} Lehrveranstaltungen, wird der Index kompakt abgelegt.
      *
-     * @param date Das Datum in {@link String Textform}, welches als {@link LocalDateTime Datum} formatiert
-     *             zurückgegeben werden soll.
+     * @return Ein {@link LvsIndex} mit allen Lehrveranstaltungen der ICS-Datei.
+     */
+    @NotNull
+    @SneakyThrows
+    public LvsIndex getLvs() {
+        final File timetable = UserHandler.getTimetable(username);
+        final byte[] hash = SnapshotHandler.getHash(timetable);
+
+        final List<LVS> snapshot = SnapshotHandler.load(username, hash);
+        if (snapshot != null) {
+            System.out.println("local calender loaded from snapshot.");
+            return createIndex(snapshot);
+        }
+
+        final List<LVS> lvsList = new ArrayList<>();
+        try {
+            ICalStreamHandler.parse(timetable, lvsList::add);
+            System.out.println("local calender streamed.");
+        } catch (@NotNull final IOException | RuntimeException e) {
+            System.out.println("failed to stream local calender, falling back to ical4j: " + e.getMessage());
+            lvsList.clear();
+            lvsList.addAll(getLvsFromCalendar(buildCalendar(timetable)));
+        }
+
+        SnapshotHandler.save(username, hash, lvsList);
+
+        return createIndex(lvsList);
+    }
+
+    /**
+     * Erzeugt einen {@link LvsIndex} mit bestimmten Lehrveranstaltungen. Sind es mindestens {@value COMPACT_THRESHOLD}
+     * Lehrveranstaltungen, wird der Index kompakt abgelegt (siehe {@link LvsIndex#compact()}).
+     *
+     * @param lvsList Die Lehrveranstaltungen, die der Index enthalten soll.
+     *
+     * @return Ein {@link LvsIndex} mit den Lehrveranstaltungen.
+     */
+    @NotNull
+    private static LvsIndex createIndex(@NotNull final List<LVS> lvsList) {
+        final LvsIndex lvsIndex = new LvsIndex();
+        lvsIndex.addAll(lvsList);
+
+        if (lvsIndex.size() >= COMPACT_THRESHOLD) {
+            lvsIndex.compact();
+            System.out.println("local calender compacted (" + lvsIndex.size() + " lectures).");
+        }
+
+        return lvsIndex;
+    }
+
+    /**
+     * Liest die (neu heruntergeladene) ICS-Datei erneut ein und vergleicht sie mit den Lehrveranstaltungen eines
+     * bestehenden {@link LvsIndex}. Dabei werden nur die Veranstaltungen dekodiert, deren Inhalt sich verändert hat;
+     * alle anderen werden aus dem bestehenden Index übernommen. Der bestehende Index selbst wird hierbei nicht
+     * verändert, sondern kann anschließend mithilfe von {@link LvsIndex#prepare(LvsChangeSet)} und
+     * {@link LvsIndex#apply} aktualisiert werden.
+     *
+     * @param lvsIndex Der bestehende {@link LvsIndex}, mit dem die ICS-Datei verglichen werden soll.
      *
-     * @return Ein {@link LocalDateTime Datum} auf der Grundlage eines Datums in Form eines {@link String Textes}.
+     * @return Alle Änderungen zwischen dem bestehenden Index und der ICS-Datei.
      */
     @NotNull
-    private LocalDateTime getDateFromString(@NotNull final String date) {
-        final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
-        return LocalDateTime.parse(date, formatter);
+    @SneakyThrows
+    public LvsChangeSet getChanges(@NotNull final LvsIndex lvsIndex) {
+        final File timetable = UserHandler.getTimetable(username);
+        final byte[] hash = SnapshotHandler.getHash(timetable);
+        final List<LVS> previousList = lvsIndex.getAll();
+
+        final Map<Long, Deque<LVS>> previous = new HashMap<>(previousList.size() * 2);
+        for (@NotNull final LVS lvs : previousList) {
+            previous.computeIfAbsent(lvs.getContentHash(), contentHash -> new ArrayDeque<>(1)).add(lvs);
+        }
+
+        final List<LVS> lvsList = new ArrayList<>(previousList.size());
+        try {
+            ICalStreamHandler.parse(timetable, previous, lvsList::add);
+        } catch (@NotNull final IOException | RuntimeException e) {
+            System.out.println("failed to stream local calender, falling back to ical4j: " + e.getMessage());
+            lvsList.clear();
+            lvsList.addAll(getLvsFromCalendar(buildCalendar(timetable)));
+        }
+
+        final Set<LVS> previousSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        previousSet.addAll(previousList);
+
+        final Set<LVS> currentSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<LVS> changed = new ArrayList<>();
+
+        for (@NotNull final LVS lvs : lvsList) {
+            currentSet.add(lvs);
+            if (!previousSet.contains(lvs)) changed.add(lvs);
+        }
+
+        final Map<Long, Deque<LVS>> removedByKey = new HashMap<>();
+        for (@NotNull final LVS lvs : previousList) {
+            if (currentSet.contains(lvs)) continue;
+
+            removedByKey.computeIfAbsent(lvs.getKey(), key -> new ArrayDeque<>()).add(lvs);
+        }
+
+        final List<LVS> added = new ArrayList<>();
+        final Map<LVS, LVS> moved = new LinkedHashMap<>();
+        for (@NotNull final LVS lvs : changed) {
+            final Deque<LVS> candidates = removedByKey.get(lvs.getKey());
+
+            if (candidates == null || candidates.isEmpty()) {
+                added.add(lvs);
+                continue;
+            }
+
+            moved.put(candidates.poll(), lvs);
+        }
+
+        final List<LVS> removed = new ArrayList<>();
+        for (@NotNull final Deque<LVS> candidates : removedByKey.values()) {
+            removed.addAll(candidates);
+        }
+
+        final LvsChangeSet changeSet = new LvsChangeSet(added, removed, moved);
+        System.out.println(changeSet.size() + " lectures changed.");
+
+        SnapshotHandler.save(username, hash, lvsList);
+
+        return changeSet;
     }
 
-    //<editor-fold desc="utility">
+    /**
+     * Gibt alle Lehrveranstaltungen eines vollständig aufgebauten ical4j-{@link Calendar} in der Reihenfolge zurück, in
+     * der sie im Kalender stehen.
+     *
+     * @param calendar Der Kalender, aus dem die Lehrveranstaltungen gelesen werden sollen.
+     *
+     * @return Alle Lehrveranstaltungen des Kalenders.
+     */
+    @NotNull
+    private static List<LVS> getLvsFromCalendar(@NotNull final Calendar calendar) {
+        final List<LVS> lvsList = new ArrayList<>();
+
+        for (@NotNull final CalendarComponent component : calendar.getComponents()) {
+            final Optional<Property> startProperty = Optional.ofNullable(component.getProperty("DTSTART"));
+            final Optional<Property> endProperty = Optional.ofNullable(component.getProperty("DTEND"));
+            final Optional<Property> descriptionProperty = Optional.ofNullable(component.getProperty("DESCRIPTION"));
+
+            if (!startProperty.isPresent() || !endProperty.isPresent() || !descriptionProperty.isPresent()) continue;
+
+            final LocalDateTime startDate = getDate(startProperty.get());
+            final LocalDateTime endDate = getDate(endProperty.get());
+            final String description = descriptionProperty.get().getValue();
+
+            // the content hash differs from the one of the stream parser, but is stable between two versions
+            final StringBuilder content = new StringBuilder();
+            for (@NotNull final Property property : component.getProperties()) {
+                if (!property.getName().equals(Property.DTSTAMP)) content.append(property);
+            }
+            final long contentHash = ICalStreamHandler.getHash(content.toString());
+
+            final Property uid = component.getProperty(Property.UID);
+            final Property recurrenceId = component.getProperty(Property.RECURRENCE_ID);
+            final long key = (uid == null)
+                ? contentHash
+                : ICalStreamHandler.getHash(uid.getValue() + (recurrenceId == null ? "" : recurrenceId.getValue()));
+
+            lvsList.add(LVS.fromDescription(startDate, endDate, description, key, contentHash));
+        }
+
+        return lvsList;
+    }
 
     /**
-     * Prüft anhand von verschiedener großer Webseiten, ob eine Verbindung zu einer dieser Webseiten hergestellt werden
-     * kann und schließt daraus, ob eine Internetverbindung besteht oder nicht.
+     * Gibt den Wert einer Datums-Eigenschaft eines ical4j-{@link Calendar} als {@link LocalDateTime Datum} in der
+     * lokalen Zeitzone zurück.
+     *
+     * @param property Die Datums-Eigenschaft (DTSTART oder DTEND).
      *
-     * @return Wenn eine Internetverbindung besteht {@code true}, ansonsten {@code false}.
+     * @return Der Wert der Eigenschaft als {@link LocalDateTime Datum} in der lokalen Zeitzone.
      */
-    private static boolean isConnectionPresent() {
-        return isHostReachable("google.de") || isHostReachable("amazon.de")
-            || isHostReachable("apple.com") || isHostReachable("github.com");
+    @NotNull
+    private static LocalDateTime getDate(@NotNull final Property property) {
+        final Parameter tzid = property.getParameter(Parameter.TZID);
+        return ICalDateHandler.parse(property.getValue(), tzid == null ? null : tzid.getValue());
     }
 
     /**
-     * Prüft, ob eine Verbindung zu einem bestimmten Host hergestellt werden kann.
+     * Baut den vollständigen ical4j-{@link Calendar} aus einer ICS-Datei auf.
      *
-     * @param host Der Host, welcher überprüft werden soll.
+     * @param timetable Die ICS-Datei, aus der der Kalender aufgebaut werden soll.
      *
-     * @return Wenn dieser Host erreichbar ist, {@code true}, ansonsten {@code false}.
+     * @return Der vollständige ical4j-{@link Calendar} der ICS-Datei.
      */
-    private static boolean isHostReachable(@NotNull final String host) {
-        try (final Socket socket = new Socket()) {
-            final InetSocketAddress address = new InetSocketAddress(host, 80);
-            socket.connect(address, 1000);
+    @NotNull
+    @SneakyThrows
+    private static Calendar buildCalendar(@NotNull final File timetable) {
+        try (final FileInputStream calenderInput = new FileInputStream(timetable)) {
+            final CalendarBuilder builder = new CalendarBuilder();
+            final Calendar calendar = builder.build(calenderInput);
+            System.out.println("local calender built.");
 
-            return true;
-        } catch (@NotNull final IOException ignored) {
-            return false;
+            return calendar;
         }
     }
-    //</editor-fold>
 
 }
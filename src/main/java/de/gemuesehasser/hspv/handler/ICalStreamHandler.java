@@ -0,0 +1,674 @@
+package de.gemuesehasser.hspv.handler;
+
+import de.gemuesehasser.hspv.object.LVS;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Mithilfe dieses Handlers lassen sich die Lehrveranstaltungen einer ICS-Datei in einem einzigen Durchlauf direkt aus
+ * der vollständig eingelesenen Datei lesen, ohne vorher den vollständigen Objekt-Baum eines Kalenders aufbauen zu
+ * müssen. Dabei werden umgebrochene Zeilen wieder zusammengefügt und maskierte Zeichen in Texten aufgelöst. Große
+ * Dateien werden an den Grenzen der einzelnen Veranstaltungen aufgeteilt und parallel gelesen. Für jede Veranstaltung
+ * wird zusätzlich ein Hash-Wert ihres Inhalts gebildet, sodass unveränderte Veranstaltungen aus einer vorherigen
+ * Version der Datei übernommen werden können, ohne sie erneut zu dekodieren.
+ */
+public final class ICalStreamHandler {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Die Startgröße des Puffers, in welchem eine einzelne (zusammengefügte) Zeile der ICS-Datei abgelegt wird. */
+    private static final int INITIAL_LINE_CAPACITY = 256;
+    /** Die Verschachtelungstiefe, in der sich die Eigenschaften einer Komponente (z.B. VEVENT) befinden. */
+    private static final int COMPONENT_DEPTH = 2;
+    /** Die Verschachtelungstiefe innerhalb des Kalenders, an der eine Datei aufgeteilt werden kann. */
+    private static final int CALENDAR_DEPTH = 1;
+    /** Die Größe (in Bytes), ab der eine ICS-Datei parallel gelesen wird. */
+    private static final int PARALLEL_THRESHOLD = 1024 * 1024;
+    /** Die Größe (in Bytes), bis zu der ein Teil einer ICS-Datei nicht weiter aufgeteilt wird. */
+    private static final int CHUNK_SIZE = 256 * 1024;
+    /** Die Zeile, mit der jede Veranstaltung beginnt und an der die Datei aufgeteilt werden kann. */
+    private static final byte @NotNull [] EVENT_BEGIN = "\nBEGIN:VEVENT".getBytes(StandardCharsets.US_ASCII);
+    /** Der Startwert eines Hash-Wertes (FNV-1a, 64 Bit). */
+    private static final long HASH_SEED = 0xcbf29ce484222325L;
+    /** Der Faktor, mit dem ein Hash-Wert (FNV-1a, 64 Bit) nach jedem Byte multipliziert wird. */
+    private static final long HASH_PRIME = 0x100000001b3L;
+    //</editor-fold>
+
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Liest alle Lehrveranstaltungen aus einer ICS-Datei und übergibt diese direkt - in der Reihenfolge, in der sie in
+     * der Datei stehen - an einen {@link Consumer}.
+     *
+     * @param file     Die ICS-Datei, aus der die Lehrveranstaltungen gelesen werden sollen.
+     * @param consumer Der {@link Consumer}, an den jede gelesene Lehrveranstaltung übergeben wird.
+     *
+     * @throws IOException Wenn die Datei nicht gelesen werden kann oder keinen gültigen Kalender enthält.
+     */
+    public static void parse(
+        @NotNull final File file,
+        @NotNull final Consumer<LVS> consumer
+    ) throws IOException {
+        parse(file, null, consumer, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Liest alle Lehrveranstaltungen aus einer ICS-Datei und übergibt diese - in der Reihenfolge, in der sie in der
+     * Datei stehen - an einen {@link Consumer}. Veranstaltungen, deren Inhalt sich gegenüber einer vorherigen Version
+     * der Datei nicht verändert hat, werden dabei nicht erneut dekodiert, sondern unverändert übernommen. Jede
+     * vorherige Veranstaltung wird dabei höchstens einmal übernommen und aus ihrer Warteschlange entfernt, sodass
+     * mehrere identische Veranstaltungen jeweils eine eigene vorherige Instanz erhalten.
+     *
+     * @param file     Die ICS-Datei, aus der die Lehrveranstaltungen gelesen werden sollen.
+     * @param previous Alle Lehrveranstaltungen der vorherigen Version der Datei, gruppiert nach dem Hash-Wert ihres
+     *                 Inhalts.
+     * @param consumer Der {@link Consumer}, an den jede gelesene Lehrveranstaltung übergeben wird.
+     *
+     * @throws IOException Wenn die Datei nicht gelesen werden kann oder keinen gültigen Kalender enthält.
+     */
+    public static void parse(
+        @NotNull final File file,
+        @NotNull final Map<Long, Deque<LVS>> previous,
+        @NotNull final Consumer<LVS> consumer
+    ) throws IOException {
+        parse(file, previous, consumer, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Liest alle Lehrveranstaltungen aus einer ICS-Datei und übergibt diese - in der Reihenfolge, in der sie in der
+     * Datei stehen - an einen {@link Consumer}. Ab einer Größe von {@value PARALLEL_THRESHOLD} Bytes wird die Datei in
+     * mehrere Teile aufgeteilt, welche parallel in einem bestimmten {@link ForkJoinPool} gelesen werden. Die Datei wird
+     * dabei nicht in den Speicher eingeblendet, da sie sich unter Windows sonst nicht ersetzen ließe, solange die
+     * Einblendung nicht durch den Garbage-Collector aufgehoben wurde.
+     *
+     * @param file     Die ICS-Datei, aus der die Lehrveranstaltungen gelesen werden sollen.
+     * @param previous Alle Lehrveranstaltungen der vorherigen Version der Datei, gruppiert nach dem Hash-Wert ihres
+     *                 Inhalts, oder {@code null}, wenn alle Veranstaltungen dekodiert werden sollen.
+     * @param consumer Der {@link Consumer}, an den jede gelesene Lehrveranstaltung übergeben wird.
+     * @param pool     Der {@link ForkJoinPool}, in dem große Dateien parallel gelesen werden.
+     *
+     * @throws IOException Wenn die Datei nicht gelesen werden kann oder keinen gültigen Kalender enthält.
+     */
+    public static void parse(
+        @NotNull final File file,
+        @Nullable final Map<Long, Deque<LVS>> previous,
+        @NotNull final Consumer<LVS> consumer,
+        @NotNull final ForkJoinPool pool
+    ) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        if (!startsWithCalendar(buffer)) {
+            throw new IOException("no valid calendar found in the given ics content.");
+        }
+
+        if (buffer.limit() < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+            if (parse(buffer, 0, buffer.limit(), 0, previous, consumer) != 0) {
+                throw new IOException("the given ics content is incomplete.");
+            }
+            return;
+        }
+
+        final List<LVS> lvsList;
+        try {
+            lvsList = pool.invoke(new ChunkParseTask(buffer, 0, buffer.limit(), previous));
+        } catch (@NotNull final UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        for (@NotNull final LVS lvs : lvsList) {
+            consumer.accept(lvs);
+        }
+    }
+
+    /**
+     * Liest alle Lehrveranstaltungen aus einem bestimmten Bereich eines Puffers, welcher den Inhalt einer ICS-Datei
+     * enthält, und übergibt diese an einen {@link Consumer}. Die Eigenschaften einer Veranstaltung werden dabei erst am
+     * Ende der Veranstaltung dekodiert und auch nur dann, wenn sie nicht unverändert übernommen werden kann.
+     *
+     * @param buffer   Der Puffer, welcher den Inhalt der ICS-Datei enthält.
+     * @param from     Die Position im Puffer, ab der gelesen werden soll (inklusive).
+     * @param to       Die Position im Puffer, bis zu der gelesen werden soll (exklusive).
+     * @param depth    Die Verschachtelungstiefe, in der sich der Bereich zu Beginn befindet.
+     * @param previous Alle Lehrveranstaltungen der vorherigen Version der Datei, gruppiert nach dem Hash-Wert ihres
+     *                 Inhalts, oder {@code null}, wenn alle Veranstaltungen dekodiert werden sollen.
+     * @param consumer Der {@link Consumer}, an den jede gelesene Lehrveranstaltung übergeben wird.
+     *
+     * @return Die Verschachtelungstiefe am Ende des Bereichs.
+     */
+    private static int parse(
+        @NotNull final ByteBuffer buffer,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int from,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int to,
+        @Range(from = 0, to = Integer.MAX_VALUE) int depth,
+        @Nullable final Map<Long, Deque<LVS>> previous,
+        @NotNull final Consumer<LVS> consumer
+    ) {
+        final LineReader reader = new LineReader(buffer, to);
+
+        // the positions of the lines are kept, so that they only have to be decoded if the event has changed
+        int startPosition = -1;
+        int endPosition = -1;
+        int descriptionPosition = -1;
+        long contentHash = HASH_SEED;
+        long uidHash = HASH_SEED;
+        boolean uidFound = false;
+
+        int position = from;
+        while (position < to) {
+            final int linePosition = position;
+            position = reader.read(position);
+
+            final byte[] line = reader.line;
+            final int length = reader.length;
+            if (length == 0) continue;
+
+            if (startsWith(line, length, "BEGIN:")) {
+                depth++;
+
+                if (depth == COMPONENT_DEPTH) {
+                    startPosition = -1;
+                    endPosition = -1;
+                    descriptionPosition = -1;
+                    contentHash = HASH_SEED;
+                    uidHash = HASH_SEED;
+                    uidFound = false;
+                } else if (depth > COMPONENT_DEPTH) {
+                    contentHash = hash(contentHash, line, length);
+                }
+                continue;
+            }
+
+            if (startsWith(line, length, "END:")) {
+                if (depth == COMPONENT_DEPTH && startPosition >= 0 && endPosition >= 0 && descriptionPosition >= 0) {
+                    final LVS unchanged = poll(previous, contentHash);
+
+                    if (unchanged != null) {
+                        consumer.accept(unchanged);
+                    } else {
+                        reader.read(startPosition);
+                        final LocalDateTime start = getDate(reader.line, reader.length);
+                        reader.read(endPosition);
+                        final LocalDateTime end = getDate(reader.line, reader.length);
+                        reader.read(descriptionPosition);
+                        final String description = getText(reader.line, reader.length);
+
+                        consumer.accept(LVS.fromDescription(start, end, description, uidFound ? uidHash : contentHash, contentHash));
+                    }
+                } else if (depth > COMPONENT_DEPTH) {
+                    contentHash = hash(contentHash, line, length);
+                }
+
+                depth--;
+                continue;
+            }
+
+            if (depth < COMPONENT_DEPTH) continue;
+
+            // the timestamp changes with every export of the calendar, so it is not part of the content
+            if (!isProperty(line, length, "DTSTAMP")) contentHash = hash(contentHash, line, length);
+
+            if (depth != COMPONENT_DEPTH) continue;
+
+            if (isProperty(line, length, "DTSTART")) {
+                startPosition = linePosition;
+            } else if (isProperty(line, length, "DTEND")) {
+                endPosition = linePosition;
+            } else if (isProperty(line, length, "DESCRIPTION")) {
+                descriptionPosition = linePosition;
+            } else if (isProperty(line, length, "UID") || isProperty(line, length, "RECURRENCE-ID")) {
+                uidHash = hash(uidHash, line, length);
+                uidFound = true;
+            }
+        }
+
+        return depth;
+    }
+
+    /**
+     * Gibt den Hash-Wert eines Textes zurück, welcher auf die gleiche Weise gebildet wird, wie der Hash-Wert einer
+     * einzelnen Zeile der ICS-Datei.
+     *
+     * @param text Der Text, dessen Hash-Wert zurückgegeben werden soll.
+     *
+     * @return Der Hash-Wert des Textes.
+     */
+    static long getHash(@NotNull final String text) {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return hash(HASH_SEED, bytes, bytes.length);
+    }
+
+    /**
+     * Erweitert einen Hash-Wert (FNV-1a, 64 Bit) um eine Zeile, welche mit einem Zeilenumbruch abgeschlossen wird.
+     *
+     * @param hash   Der bisherige Hash-Wert.
+     * @param line   Die Zeile in Form von Bytes.
+     * @param length Die Länge der Zeile.
+     *
+     * @return Der um die Zeile erweiterte Hash-Wert.
+     */
+    private static long hash(
+        long hash,
+        final byte @NotNull [] line,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int length
+    ) {
+        for (int i = 0; i < length; i++) {
+            hash ^= line[i] & 0xFF;
+            hash *= HASH_PRIME;
+        }
+
+        hash ^= '\n';
+        return hash * HASH_PRIME;
+    }
+
+    /**
+     * Prüft, ob der Inhalt eines Puffers (nach einer eventuell vorhandenen Byte-Order-Markierung) mit dem Beginn eines
+     * Kalenders startet.
+     *
+     * @param buffer Der Puffer, welcher den Inhalt der ICS-Datei enthält.
+     *
+     * @return Wenn der Inhalt mit dem Beginn eines Kalenders startet {@code true}, ansonsten {@code false}.
+     */
+    private static boolean startsWithCalendar(@NotNull final ByteBuffer buffer) {
+        final byte[] calendarBegin = "BEGIN:VCALENDAR".getBytes(StandardCharsets.US_ASCII);
+
+        int position = 0;
+        while (position < buffer.limit() && (buffer.get(position) & 0xFF) > 0x7F) position++;
+        while (position < buffer.limit() && Character.isWhitespace(buffer.get(position))) position++;
+
+        if (buffer.limit() - position < calendarBegin.length) return false;
+
+        for (int i = 0; i < calendarBegin.length; i++) {
+            if (toUpperCase(buffer.get(position + i)) != calendarBegin[i]) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Sucht ab einer bestimmten Position die nächste Zeile, an der eine Veranstaltung beginnt.
+     *
+     * @param buffer Der Puffer, welcher den Inhalt der ICS-Datei enthält.
+     * @param from   Die Position, ab der gesucht werden soll.
+     * @param to     Die Position, bis zu der gesucht werden soll.
+     *
+     * @return Die Position, an der die Zeile beginnt, oder {@code -1}, wenn keine solche Zeile gefunden wurde.
+     */
+    private static int findEventBegin(
+        @NotNull final ByteBuffer buffer,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int from,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int to
+    ) {
+        outer:
+        for (int i = from; i <= to - EVENT_BEGIN.length; i++) {
+            for (int j = 0; j < EVENT_BEGIN.length; j++) {
+                if (buffer.get(i + j) != EVENT_BEGIN[j]) continue outer;
+            }
+
+            return i + 1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Entnimmt eine vorherige Lehrveranstaltung mit einem bestimmten Hash-Wert ihres Inhalts, sodass diese nur ein
+     * einziges Mal übernommen wird. Da große Dateien parallel gelesen werden, wird die Warteschlange dabei gesperrt.
+     *
+     * @param previous    Alle Lehrveranstaltungen der vorherigen Version der Datei, gruppiert nach dem Hash-Wert ihres
+     *                    Inhalts, oder {@code null}.
+     * @param contentHash Der Hash-Wert des Inhalts der Veranstaltung.
+     *
+     * @return Die vorherige Lehrveranstaltung oder {@code null}, wenn keine (weitere) übernommen werden kann.
+     */
+    @Nullable
+    private static LVS poll(
+        @Nullable final Map<Long, Deque<LVS>> previous,
+        final long contentHash
+    ) {
+        if (previous == null) return null;
+
+        final Deque<LVS> candidates = previous.get(contentHash);
+        if (candidates == null) return null;
+
+        synchronized (candidates) {
+            return candidates.poll();
+        }
+    }
+
+    /**
+     * Prüft, ob eine Zeile mit einem bestimmten (ASCII-)Präfix beginnt. Da Namen von Eigenschaften und Komponenten nach
+     * RFC 5545 nicht zwischen Groß- und Kleinschreibung unterscheiden, wird die Zeile dabei wie in Großbuchstaben
+     * verglichen. Das Präfix muss daher in Großbuchstaben angegeben werden.
+     *
+     * @param line   Die Zeile in Form von Bytes.
+     * @param length Die Länge der Zeile.
+     * @param prefix Das Präfix, auf das geprüft werden soll.
+     *
+     * @return Wenn die Zeile mit dem Präfix beginnt {@code true}, ansonsten {@code false}.
+     */
+    private static boolean startsWith(
+        final byte @NotNull [] line,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int length,
+        @NotNull final String prefix
+    ) {
+        if (length < prefix.length()) return false;
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (toUpperCase(line[i]) != prefix.charAt(i)) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Prüft, ob eine Zeile eine Eigenschaft mit einem bestimmten Namen enthält, ohne dabei zwischen Groß- und
+     * Kleinschreibung zu unterscheiden. Der Name muss dabei von einem Parameter (';') oder dem Wert (':') gefolgt
+     * werden.
+     *
+     * @param line   Die Zeile in Form von Bytes.
+     * @param length Die Länge der Zeile.
+     * @param name   Der Name der Eigenschaft.
+     *
+     * @return Wenn die Zeile eine Eigenschaft mit dem Namen enthält {@code true}, ansonsten {@code false}.
+     */
+    private static boolean isProperty(
+        final byte @NotNull [] line,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int length,
+        @NotNull final String name
+    ) {
+        if (length <= name.length() || !startsWith(line, length, name)) return false;
+
+        final byte separator = line[name.length()];
+        return separator == ':' || separator == ';';
+    }
+
+    /**
+     * Wandelt ein einzelnes ASCII-Zeichen in einen Großbuchstaben um. Alle anderen Bytes bleiben unverändert.
+     *
+     * @param character Das Zeichen in Form eines Bytes.
+     *
+     * @return Das Zeichen als Großbuchstabe.
+     */
+    private static int toUpperCase(final byte character) {
+        return (character >= 'a' && character <= 'z') ? character - ('a' - 'A') : character;
+    }
+
+    /**
+     * Gibt den Wert einer Datums-Eigenschaft (DTSTART oder DTEND) als {@link LocalDateTime Datum} in der lokalen
+     * Zeitzone zurück. Dabei wird ein eventuell vorhandener TZID-Parameter berücksichtigt.
+     *
+     * @param line   Die Zeile in Form von Bytes.
+     * @param length Die Länge der Zeile.
+     *
+     * @return Der Wert der Eigenschaft als {@link LocalDateTime Datum} in der lokalen Zeitzone.
+     */
+    @NotNull
+    private static LocalDateTime getDate(
+        final byte @NotNull [] line,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int length
+    ) {
+        final int valueStart = getValueStart(line, length);
+        return ICalDateHandler.parse(line, valueStart, length, getParameter(line, valueStart, "TZID"));
+    }
+
+    /**
+     * Gibt den Wert einer Text-Eigenschaft zurück, in welchem alle maskierten Zeichen (z.B. {@code \n} oder
+     * {@code \,}) aufgelöst wurden.
+     *
+     * @param line   Die Zeile in Form von Bytes.
+     * @param length Die Länge der Zeile.
+     *
+     * @return Der Wert der Eigenschaft mit aufgelösten maskierten Zeichen.
+     */
+    @NotNull
+    private static String getText(
+        final byte @NotNull [] line,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int length
+    ) {
+        final int valueStart = getValueStart(line, length);
+
+        // all escape sequences consist of ascii characters, so the bytes can be unescaped in place
+        int unescapedLength = valueStart;
+        for (int i = valueStart; i < length; i++) {
+            if (line[i] == '\\' && i + 1 < length) {
+                final byte next = line[++i];
+                line[unescapedLength++] = (next == 'n' || next == 'N') ? (byte) '\n' : next;
+                continue;
+            }
+
+            line[unescapedLength++] = line[i];
+        }
+
+        return new String(line, valueStart, unescapedLength - valueStart, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gibt die Position zurück, an der der Wert einer Eigenschaft beginnt, also die Position hinter dem ersten
+     * Doppelpunkt, der sich nicht innerhalb eines in Anführungszeichen gesetzten Parameters befindet.
+     *
+     * @param line   Die Zeile in Form von Bytes.
+     * @param length Die Länge der Zeile.
+     *
+     * @return Die Position, an der der Wert der Eigenschaft beginnt.
+     */
+    @Range(from = 0, to = Integer.MAX_VALUE)
+    private static int getValueStart(
+        final byte @NotNull [] line,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int length
+    ) {
+        boolean quoted = false;
+
+        for (int i = 0; i < length; i++) {
+            if (line[i] == '"') quoted = !quoted;
+            if (quoted || line[i] != ':') continue;
+
+            return i + 1;
+        }
+
+        return length;
+    }
+
+    /**
+     * Gibt den Wert eines bestimmten Parameters einer Eigenschaft zurück (ohne umschließende Anführungszeichen).
+     *
+     * @param line       Die Zeile in Form von Bytes.
+     * @param valueStart Die Position, an der der Wert der Eigenschaft beginnt.
+     * @param name       Der Name des Parameters.
+     *
+     * @return Der Wert des Parameters oder {@code null}, wenn die Eigenschaft diesen Parameter nicht besitzt.
+     */
+    @Nullable
+    private static String getParameter(
+        final byte @NotNull [] line,
+        @Range(from = 0, to = Integer.MAX_VALUE) final int valueStart,
+        @NotNull final String name
+    ) {
+        final int parametersEnd = valueStart - 1;
+        boolean quoted = false;
+
+        for (int i = 0; i < parametersEnd; i++) {
+            if (line[i] == '"') quoted = !quoted;
+            if (quoted || line[i] != ';' || i + name.length() + 1 >= parametersEnd) continue;
+
+            boolean matches = line[i + name.length() + 1] == '=';
+            for (int j = 0; matches && j < name.length(); j++) {
+                matches = toUpperCase(line[i + 1 + j]) == name.charAt(j);
+            }
+            if (!matches) continue;
+
+            int parameterStart = i + name.length() + 2;
+            int parameterEnd = parameterStart;
+            while (parameterEnd < parametersEnd && line[parameterEnd] != ';') {
+                if (line[parameterEnd] == '"') {
+                    do parameterEnd++; while (parameterEnd < parametersEnd && line[parameterEnd] != '"');
+                }
+                parameterEnd++;
+            }
+            parameterEnd = Math.min(parameterEnd, parametersEnd);
+
+            if (parameterEnd - parameterStart >= 2 && line[parameterStart] == '"' && line[parameterEnd - 1] == '"') {
+                parameterStart++;
+                parameterEnd--;
+            }
+
+            return new String(line, parameterStart, parameterEnd - parameterStart, StandardCharsets.UTF_8);
+        }
+
+        return null;
+    }
+    //</editor-fold>
+
+
+    /**
+     * Eine {@link ChunkParseTask Aufgabe}, welche einen Teil einer ICS-Datei liest. Ist der Teil größer als
+     * {@value CHUNK_SIZE} Bytes, wird er an der Grenze einer Veranstaltung geteilt und beide Hälften werden parallel
+     * gelesen. Die Lehrveranstaltungen werden dabei in der Reihenfolge zurückgegeben, in der sie in der Datei stehen.
+     */
+    @RequiredArgsConstructor
+    private static final class ChunkParseTask extends RecursiveTask<List<LVS>> {
+
+        //<editor-fold desc="LOCAL FIELDS">
+        /** Der Puffer, welcher den Inhalt der ICS-Datei enthält. */
+        @NotNull
+        private final ByteBuffer buffer;
+        /** Die Position im Puffer, ab der gelesen werden soll (inklusive). */
+        @Range(from = 0, to = Integer.MAX_VALUE)
+        private final int from;
+        /** Die Position im Puffer, bis zu der gelesen werden soll (exklusive). */
+        @Range(from = 0, to = Integer.MAX_VALUE)
+        private final int to;
+        /** Alle Lehrveranstaltungen der vorherigen Version der Datei, gruppiert nach dem Hash-Wert ihres Inhalts. */
+        @Nullable
+        private final Map<Long, Deque<LVS>> previous;
+        //</editor-fold>
+
+
+        //<editor-fold desc="implementation">
+        @Override
+        @NotNull
+        protected List<LVS> compute() {
+            if (to - from > CHUNK_SIZE) {
+                final int split = findEventBegin(buffer, from + (to - from) / 2, to);
+
+                if (split > from && split < to) {
+                    final ChunkParseTask second = new ChunkParseTask(buffer, split, to, previous);
+                    second.fork();
+
+                    final List<LVS> lvsList = new ChunkParseTask(buffer, from, split, previous).compute();
+                    lvsList.addAll(second.join());
+                    return lvsList;
+                }
+            }
+
+            // every chunk except the first one starts inside the calendar, only the last one leaves it again
+            final int startDepth = (from == 0) ? 0 : CALENDAR_DEPTH;
+            final int expectedEndDepth = (to == buffer.limit()) ? 0 : CALENDAR_DEPTH;
+
+            final List<LVS> lvsList = new ArrayList<>();
+            if (parse(buffer, from, to, startDepth, previous, lvsList::add) != expectedEndDepth) {
+                throw new UncheckedIOException(new IOException("the given ics content is incomplete."));
+            }
+
+            return lvsList;
+        }
+        //</editor-fold>
+    }
+
+
+    /**
+     * Ein {@link LineReader} liest einzelne logische Zeilen aus einem Puffer, welcher den Inhalt einer ICS-Datei
+     * enthält. Dabei werden umgebrochene Zeilen wieder zusammengefügt. Die gelesene Zeile wird in einem wachsenden
+     * Byte-Array abgelegt, welches für jede Zeile wiederverwendet wird.
+     */
+    private static final class LineReader {
+
+        //<editor-fold desc="LOCAL FIELDS">
+        /** Der Puffer, welcher den Inhalt der ICS-Datei enthält. */
+        @NotNull
+        private final ByteBuffer buffer;
+        /** Die Position im Puffer, bis zu der gelesen werden darf (exklusive). */
+        @Range(from = 0, to = Integer.MAX_VALUE)
+        private final int to;
+        /** Die zuletzt gelesene (zusammengefügte) Zeile. */
+        private byte @NotNull [] line = new byte[INITIAL_LINE_CAPACITY];
+        /** Die Länge der zuletzt gelesenen Zeile. */
+        @Range(from = 0, to = Integer.MAX_VALUE)
+        private int length;
+        //</editor-fold>
+
+
+        //<editor-fold desc="CONSTRUCTORS">
+
+        /**
+         * Erzeugt eine neue Instanz eines {@link LineReader}, welcher logische Zeilen aus einem Puffer liest.
+         *
+         * @param buffer Der Puffer, welcher den Inhalt der ICS-Datei enthält.
+         * @param to     Die Position im Puffer, bis zu der gelesen werden darf (exklusive).
+         */
+        private LineReader(
+            @NotNull final ByteBuffer buffer,
+            @Range(from = 0, to = Integer.MAX_VALUE) final int to
+        ) {
+            this.buffer = buffer;
+            this.to = to;
+        }
+        //</editor-fold>
+
+
+        /**
+         * Liest die logische Zeile, welche an einer bestimmten Position beginnt, und fügt dabei alle folgenden
+         * umgebrochenen Zeilen an.
+         *
+         * @param position Die Position, an der die Zeile beginnt.
+         *
+         * @return Die Position, an der die nächste Zeile beginnt.
+         */
+        @Range(from = 0, to = Integer.MAX_VALUE)
+        private int read(@Range(from = 0, to = Integer.MAX_VALUE) int position) {
+            length = 0;
+            boolean continuation = false;
+
+            do {
+                int lineEnd = position;
+                while (lineEnd < to && buffer.get(lineEnd) != '\n') lineEnd++;
+
+                final int contentStart = continuation ? position + 1 : position;
+                int contentEnd = lineEnd;
+                if (contentEnd > contentStart && buffer.get(contentEnd - 1) == '\r') contentEnd--;
+
+                final int contentLength = Math.max(0, contentEnd - contentStart);
+                if (length + contentLength > line.length) {
+                    final byte[] grown = new byte[Math.max(line.length * 2, length + contentLength)];
+                    System.arraycopy(line, 0, grown, 0, length);
+                    line = grown;
+                }
+
+                for (int i = 0; i < contentLength; i++) {
+                    line[length++] = buffer.get(contentStart + i);
+                }
+
+                position = lineEnd + 1;
+                continuation = true;
+            } while (position < to && (buffer.get(position) == ' ' || buffer.get(position) == '\t'));
+
+            return position;
+        }
+    }
+
+}
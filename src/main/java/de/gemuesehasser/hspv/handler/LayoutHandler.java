@@ -0,0 +1,308 @@
+package de.gemuesehasser.hspv.handler;
+
+import de.gemuesehasser.hspv.object.LVS;
+import de.gemuesehasser.hspv.object.LvsIndex;
+import de.gemuesehasser.hspv.object.WeekLayout;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.awt.Rectangle;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Der {@link LayoutHandler} bildet das Zeitraster des Stundenplans auf Pixel ab. Ein Tag beginnt um 8 Uhr und ist in
+ * Einheiten von 45 Minuten unterteilt, die jeweils {@value SLOT_HEIGHT} Pixel hoch sind. Nach jeweils zwei Einheiten
+ * folgt eine Pause von 15 Minuten (bzw. nach der sechsten Einheit eine Mittagspause von 30 Minuten), die mit einem Pixel
+ * pro Minute abgebildet wird. Die y-Koordinate jeder Minute eines Tages wird einmalig vorab berechnet. Auf dieser
+ * Grundlage wird für jede Woche ein {@link WeekLayout} berechnet, in dem sich überschneidende Lehrveranstaltungen
+ * nebeneinander angeordnet werden. Die zuletzt berechneten Wochen werden zwischengespeichert.
+ */
+public final class LayoutHandler {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Die x-Koordinate, an der der erste Wochentag beginnt. */
+    public static final int DAYS_BEGIN_X = 50;
+    /** Die Breite eines Wochentags. */
+    public static final int DAY_WIDTH = 90;
+    /** Die Anzahl an Wochentagen, die angezeigt werden. */
+    public static final int DAY_AMOUNT = 5;
+    /** Die y-Koordinate, an der die erste Einheit eines Tages beginnt. */
+    public static final int GRID_BEGIN_Y = 30;
+    /** Die Höhe einer Einheit. */
+    public static final int SLOT_HEIGHT = 55;
+    /** Die Größe der abgerundeten Ecken eines Blocks. */
+    public static final int BLOCK_ROUNDING = 25;
+    /** Die Minute des Tages, an der die erste Einheit beginnt. */
+    private static final int DAY_BEGIN = 8 * 60;
+    /** Die Dauer einer Einheit in Minuten. */
+    private static final int SLOT_DURATION = 45;
+    /** Die Dauer einer Pause in Minuten. */
+    private static final int BREAK_DURATION = 15;
+    /** Die Dauer der Mittagspause in Minuten. */
+    private static final int LUNCH_BREAK_DURATION = 30;
+    /** Die Anzahl an Einheiten, nach denen jeweils eine Pause folgt. */
+    private static final int SLOTS_PER_BLOCK = 2;
+    /** Die Anzahl an Einheiten, nach denen die Mittagspause folgt. */
+    private static final int SLOTS_BEFORE_LUNCH = 6;
+    /** Die Anzahl an Minuten eines Tages. */
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    /** Die maximale Anzahl an Wochen, deren Layout zwischengespeichert wird. */
+    private static final int MAX_CACHED_WEEKS = 32;
+    /** Die y-Koordinate jeder Minute eines Tages (inklusive Mitternacht am Ende des Tages). */
+    private static final int @NotNull [] MINUTE_Y = new int[MINUTES_PER_DAY + 1];
+    /** Die Minute des Tages, an der jede Einheit beginnt. */
+    private static final int @NotNull [] SLOT_BEGINS;
+    /** Die zuletzt berechneten Layouts, wobei jeder Nummer einer Woche seit der Epoche ihr Layout zugeordnet ist. */
+    @NotNull
+    private static final Map<Long, WeekLayout> LAYOUTS = Collections.synchronizedMap(
+        new LinkedHashMap<Long, WeekLayout>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(@NotNull final Map.Entry<Long, WeekLayout> eldest) {
+                return size() > MAX_CACHED_WEEKS;
+            }
+        }
+    );
+    //</editor-fold>
+
+    static {
+        for (int minute = 0; minute < DAY_BEGIN; minute++) {
+            MINUTE_Y[minute] = GRID_BEGIN_Y - (DAY_BEGIN - minute);
+        }
+
+        final List<Integer> slotBegins = new ArrayList<>();
+        int minute = DAY_BEGIN;
+        int y = GRID_BEGIN_Y;
+
+        while (minute <= MINUTES_PER_DAY) {
+            slotBegins.add(minute);
+
+            for (int i = 0; i < SLOT_DURATION && minute + i <= MINUTES_PER_DAY; i++) {
+                MINUTE_Y[minute + i] = y + i * SLOT_HEIGHT / SLOT_DURATION;
+            }
+            minute += SLOT_DURATION;
+            y += SLOT_HEIGHT;
+
+            if (slotBegins.size() % SLOTS_PER_BLOCK != 0) continue;
+
+            final int breakDuration = (slotBegins.size() == SLOTS_BEFORE_LUNCH) ? LUNCH_BREAK_DURATION : BREAK_DURATION;
+            for (int i = 0; i < breakDuration && minute + i <= MINUTES_PER_DAY; i++) {
+                MINUTE_Y[minute + i] = y + i;
+            }
+            minute += breakDuration;
+            y += breakDuration;
+        }
+
+        SLOT_BEGINS = slotBegins.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Gibt die y-Koordinate zurück, an der eine bestimmte Minute des Tages abgebildet wird.
+     *
+     * @param minuteOfDay Die Minute des Tages (wobei {@code 1440} für Mitternacht am Ende des Tages steht).
+     *
+     * @return Die y-Koordinate, an der die Minute abgebildet wird.
+     */
+    public static int getY(@Range(from = 0, to = MINUTES_PER_DAY) final int minuteOfDay) {
+        return MINUTE_Y[minuteOfDay];
+    }
+
+    /**
+     * Gibt die y-Koordinate zurück, an der eine bestimmte Uhrzeit abgebildet wird.
+     *
+     * @param time Die Uhrzeit.
+     *
+     * @return Die y-Koordinate, an der die Uhrzeit abgebildet wird.
+     */
+    public static int getY(@NotNull final LocalTime time) {
+        return getY(time.getHour() * 60 + time.getMinute());
+    }
+
+    /**
+     * Gibt die Anzahl aller Einheiten eines Tages zurück.
+     *
+     * @return Die Anzahl aller Einheiten eines Tages.
+     */
+    @Range(from = 0, to = Integer.MAX_VALUE)
+    public static int getSlotAmount() {
+        return SLOT_BEGINS.length;
+    }
+
+    /**
+     * Gibt die Minute des Tages zurück, an der eine bestimmte Einheit beginnt.
+     *
+     * @param slot Der Index der Einheit (0 für die erste Einheit um 8 Uhr).
+     *
+     * @return Die Minute des Tages, an der die Einheit beginnt.
+     */
+    public static int getSlotBegin(final int slot) {
+        return SLOT_BEGINS[slot];
+    }
+
+    /**
+     * Gibt die Minute des Tages zurück, an der eine bestimmte Einheit endet.
+     *
+     * @param slot Der Index der Einheit (0 für die erste Einheit um 8 Uhr).
+     *
+     * @return Die Minute des Tages, an der die Einheit endet.
+     */
+    public static int getSlotEnd(final int slot) {
+        return SLOT_BEGINS[slot] + SLOT_DURATION;
+    }
+
+    /**
+     * Gibt das Layout einer bestimmten Woche zurück. Wurde das Layout dieser Woche bereits auf der Grundlage derselben
+     * Lehrveranstaltungen berechnet, wird das zwischengespeicherte Layout zurückgegeben.
+     *
+     * @param epochWeek Die Nummer der Woche seit der Epoche (siehe {@link LvsIndex#getEpochWeek(java.time.LocalDate)}).
+     * @param lvs       Die Lehrveranstaltungen der Woche, sortiert nach ihrer Startzeit.
+     *
+     * @return Das Layout der Woche.
+     */
+    @NotNull
+    public static WeekLayout getWeekLayout(
+        final long epochWeek,
+        final LVS @NotNull [] lvs
+    ) {
+        final WeekLayout cached = LAYOUTS.get(epochWeek);
+        if (cached != null && Arrays.equals(cached.getLvs(), lvs)) return cached;
+
+        final WeekLayout layout = createWeekLayout(lvs);
+        LAYOUTS.put(epochWeek, layout);
+
+        return layout;
+    }
+
+    /**
+     * Berechnet das Layout einer Woche. Lehrveranstaltungen, die sich zeitlich überschneiden, werden dabei innerhalb
+     * ihres Wochentags nebeneinander in Spalten angeordnet, wobei jede Lehrveranstaltung die erste freie Spalte erhält.
+     * Alle Lehrveranstaltungen einer Gruppe sich überschneidender Lehrveranstaltungen teilen sich die Breite des
+     * Wochentags gleichmäßig.
+     *
+     * @param lvs Die Lehrveranstaltungen der Woche, sortiert nach ihrer Startzeit.
+     *
+     * @return Das Layout der Woche.
+     */
+    @NotNull
+    private static WeekLayout createWeekLayout(final LVS @NotNull [] lvs) {
+        final List<List<LVS>> days = new ArrayList<>();
+        for (int i = 0; i < DAY_AMOUNT; i++) {
+            days.add(new ArrayList<>());
+        }
+
+        for (@NotNull final LVS l : lvs) {
+            if (l.getEnd() == null) continue;
+
+            final int day = l.getStart().getDayOfWeek().getValue() - 1;
+            if (day >= DAY_AMOUNT) continue;
+
+            days.get(day).add(l);
+        }
+
+        final WeekLayout.Block[][] blocksByDay = new WeekLayout.Block[DAY_AMOUNT][];
+        for (int i = 0; i < DAY_AMOUNT; i++) {
+            blocksByDay[i] = createDayBlocks(days.get(i), DAYS_BEGIN_X + i * DAY_WIDTH);
+        }
+
+        return new WeekLayout(lvs, blocksByDay);
+    }
+
+    /**
+     * Berechnet die Blöcke aller Lehrveranstaltungen eines Wochentags.
+     *
+     * @param lvsList Die Lehrveranstaltungen des Wochentags, sortiert nach ihrer Startzeit.
+     * @param dayX    Die x-Koordinate, an der der Wochentag beginnt.
+     *
+     * @return Die Blöcke aller Lehrveranstaltungen des Wochentags.
+     */
+    private static WeekLayout.Block @NotNull [] createDayBlocks(
+        @NotNull final List<LVS> lvsList,
+        final int dayX
+    ) {
+        final int size = lvsList.size();
+        final WeekLayout.Block[] blocks = new WeekLayout.Block[size];
+        final int[] columns = new int[size];
+        final List<Integer> columnEnds = new ArrayList<>();
+        int groupBegin = 0;
+        int groupEnd = Integer.MIN_VALUE;
+
+        for (int i = 0; i <= size; i++) {
+            final int begin = (i < size) ? getMinuteOfDay(lvsList.get(i).getStart()) : Integer.MAX_VALUE;
+
+            // the previous group of overlapping lectures is complete
+            if (begin >= groupEnd && i > groupBegin) {
+                final int columnAmount = columnEnds.size();
+
+                for (int j = groupBegin; j < i; j++) {
+                    final LVS lvs = lvsList.get(j);
+                    final int x = dayX + columns[j] * DAY_WIDTH / columnAmount;
+                    final int width = dayX + (columns[j] + 1) * DAY_WIDTH / columnAmount - x;
+                    final int y = getY(getMinuteOfDay(lvs.getStart()));
+                    final int height = Math.max(y, getY(getEndMinuteOfDay(lvs))) - y;
+
+                    blocks[j] = new WeekLayout.Block(lvs, new Rectangle(x, y, width, height));
+                }
+
+                columnEnds.clear();
+                groupBegin = i;
+            }
+
+            if (i == size) break;
+
+            final int end = Math.max(begin, getEndMinuteOfDay(lvsList.get(i)));
+            int column = 0;
+            while (column < columnEnds.size() && columnEnds.get(column) > begin) {
+                column++;
+            }
+
+            if (column == columnEnds.size()) {
+                columnEnds.add(end);
+            } else {
+                columnEnds.set(column, end);
+            }
+
+            columns[i] = column;
+            groupEnd = (i == groupBegin) ? end : Math.max(groupEnd, end);
+        }
+
+        return blocks;
+    }
+
+    /**
+     * Gibt die Minute des Tages eines bestimmten Zeitpunkts zurück.
+     *
+     * @param dateTime Der Zeitpunkt.
+     *
+     * @return Die Minute des Tages des Zeitpunkts.
+     */
+    private static int getMinuteOfDay(@NotNull final LocalDateTime dateTime) {
+        return dateTime.getHour() * 60 + dateTime.getMinute();
+    }
+
+    /**
+     * Gibt die Minute des Tages zurück, an der eine bestimmte Lehrveranstaltung endet. Endet die Lehrveranstaltung erst
+     * an einem späteren Tag, wird Mitternacht am Ende ihres Starttages zurückgegeben.
+     *
+     * @param lvs Die Lehrveranstaltung.
+     *
+     * @return Die Minute des Tages, an der die Lehrveranstaltung endet.
+     */
+    private static int getEndMinuteOfDay(@NotNull final LVS lvs) {
+        final LocalDateTime end = lvs.getEnd();
+        if (end == null) return getMinuteOfDay(lvs.getStart());
+        if (end.toLocalDate().isAfter(lvs.getStart().toLocalDate())) return MINUTES_PER_DAY;
+
+        return getMinuteOfDay(end);
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,82 @@
+package de.gemuesehasser.hspv.handler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.Color;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Der {@link PaletteHandler} stellt für jedes Modul eine schlichte Standardfarbe bereit, mit der alle
+ * Lehrveranstaltungen angezeigt werden, für die der Nutzer keine eigene Farbe festgelegt hat. Die Farbe wird aus der
+ * Modulbezeichnung abgeleitet, sodass ein Modul in jeder Sitzung dieselbe Farbe erhält, ohne dass diese gespeichert
+ * werden muss. Jede Farbe wird erst bei ihrer ersten Verwendung berechnet und anschließend von allen
+ * Lehrveranstaltungen des Moduls gemeinsam genutzt.
+ */
+public final class PaletteHandler {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Der höchste abgeleitete Wert der Farbe Rot / Grün / Blau. */
+    private static final int HIGHEST_COLOR_VALUE = 250;
+    /** Der niedrigste abgeleitete Wert der Farbe Rot / Grün / Blau. */
+    private static final int LOWEST_COLOR_VALUE = 115;
+    /** Alle bereits berechneten Farben, wobei jedem Modul seine Farbe zugeordnet ist. */
+    @NotNull
+    private static final ConcurrentHashMap<String, Color> PALETTE = new ConcurrentHashMap<>();
+    //</editor-fold>
+
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Gibt die Standardfarbe eines bestimmten Moduls zurück. Dabei wird immer dieselbe Instanz der Farbe zurückgegeben.
+     *
+     * @param module Die Modulbezeichnung (bzw. der Name einer Lehrveranstaltung ohne Modulbezeichnung).
+     *
+     * @return Die Standardfarbe des Moduls.
+     */
+    @NotNull
+    public static Color getColor(@NotNull final String module) {
+        return PALETTE.computeIfAbsent(module, PaletteHandler::createColor);
+    }
+
+    /**
+     * Leitet eine schlichte Farbe aus einer Modulbezeichnung ab. Dabei ist immer einer der Werte Rot / Grün / Blau voll
+     * gesättigt und die anderen beiden liegen zwischen {@value LOWEST_COLOR_VALUE} und {@value HIGHEST_COLOR_VALUE}.
+     *
+     * @param module Die Modulbezeichnung, aus der die Farbe abgeleitet wird.
+     *
+     * @return Eine schlichte Farbe, die aus der Modulbezeichnung abgeleitet wurde.
+     */
+    @NotNull
+    private static Color createColor(@NotNull final String module) {
+        final int hash = mix(module.hashCode());
+        final int range = HIGHEST_COLOR_VALUE - LOWEST_COLOR_VALUE + 1;
+        final int colorChoice = Integer.remainderUnsigned(hash, 3);
+
+        final int r = (colorChoice == 0) ? 255 : LOWEST_COLOR_VALUE + ((hash >>> 8) & 0xFF) % range;
+        final int g = (colorChoice == 1) ? 255 : LOWEST_COLOR_VALUE + ((hash >>> 16) & 0xFF) % range;
+        final int b = (colorChoice == 2) ? 255 : LOWEST_COLOR_VALUE + ((hash >>> 24) & 0xFF) % range;
+
+        return new Color(r, g, b);
+    }
+
+    /**
+     * Verteilt die Bits eines Hash-Werts gleichmäßig, sodass auch ähnliche Modulbezeichnungen deutlich unterschiedliche
+     * Farben erhalten.
+     *
+     * @param hash Der Hash-Wert, dessen Bits verteilt werden sollen.
+     *
+     * @return Der Hash-Wert mit gleichmäßig verteilten Bits.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+
+        return hash;
+    }
+    //</editor-fold>
+
+}
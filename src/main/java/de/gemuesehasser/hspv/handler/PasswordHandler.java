@@ -1,36 +1,90 @@
 package de.gemuesehasser.hspv.handler;
 
 import de.gemuesehasser.hspv.constant.PropertyType;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
 
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.security.spec.KeySpec;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Der {@link PasswordHandler} bietet utility-Methoden an, um ein Passwort mit einem bereits erzeugten Hash für das
  * Passwort eines Nutzers zu vergleichen. Damit kann dann festgestellt werden, ob der Nutzer das richtige Passwort
  * eingegeben hat. Alternativ lässt sich auch ein Passwort in Form eines Hash abspeichern. Bei jedem Mal, wenn ein
- * Passwort abgespeichert wird - egal ob eine Verbindung zum Internet besteht oder nicht - wird ein neues Salz genutzt,
- * wodurch sich der Hash permanent ändert.
+ * Passwort abgespeichert wird, wird ein neues Salz genutzt. Die Anzahl an Iterationen wird dabei so gewählt, dass die
+ * Berechnung eines Hash auf diesem Rechner in etwa {@value TARGET_DURATION} Millisekunden dauert, wobei nie weniger
+ * Iterationen als im alten Format genutzt werden. Ein Passwort wird allerdings nur dann neu abgespeichert, wenn der
+ * gespeicherte Hash nicht mehr dem aktuellen Algorithmus entspricht oder deutlich weniger Iterationen nutzt, als dieser
+ * Rechner schafft, da jede Berechnung eines Hash bewusst aufwendig ist. Ein gespeicherter Hash wird dabei nie durch
+ * einen Hash mit weniger Iterationen ersetzt. Alle Berechnungen lassen sich auch im Hintergrund ausführen.
  */
 public final class PasswordHandler {
 
     //<editor-fold desc="CONSTANTS">
     /** Der Algorithmus, mit dem der hash für das jeweilige Passwort erzeugt wird. */
     @NotNull
-    private static final String HASH_ALGORITHM = "PBKDF2WithHmacSHA1";
-    /** Die Anzahl an Iterationen, die der Algorithmus läuft, bis der Hash vollständig erzeugt wird. */
-    private static final int HASH_ITERATIONS = 65536;
+    private static final String HASH_ALGORITHM = "PBKDF2WithHmacSHA256";
+    /** Der Algorithmus, mit dem alle Hashes im alten Format (Salz und Hash) erzeugt wurden. */
+    @NotNull
+    private static final String LEGACY_HASH_ALGORITHM = "PBKDF2WithHmacSHA1";
+    /** Die Anzahl an Iterationen, mit der alle Hashes im alten Format (Salz und Hash) erzeugt wurden. */
+    private static final int LEGACY_HASH_ITERATIONS = 65536;
+    /** Alle Algorithmen, mit denen ein gespeicherter Hash überprüft werden kann. */
+    @NotNull
+    private static final List<String> SUPPORTED_ALGORITHMS = Arrays.asList(HASH_ALGORITHM, LEGACY_HASH_ALGORITHM);
+    /** Die Zeit in Millisekunden, die die Berechnung eines Hash auf diesem Rechner in etwa dauern soll. */
+    private static final long TARGET_DURATION = 150;
+    /** Die Anzahl an Iterationen, mit der die Leistung dieses Rechners gemessen wird. */
+    private static final int CALIBRATION_ITERATIONS = 10_000;
+    /** Die Anzahl an Messungen, aus denen die schnellste für die Berechnung der Iterationen genutzt wird. */
+    private static final int CALIBRATION_ROUNDS = 5;
+    /** Der Name der Eigenschaft, unter der die für diesen Rechner gemessene Anzahl an Iterationen gespeichert wird. */
+    @NotNull
+    private static final String CALIBRATION_PROPERTY = "passwordHashIterations";
+    /** Die minimale Anzahl an Iterationen, die der Algorithmus läuft, bis der Hash vollständig erzeugt wird. */
+    private static final int MIN_HASH_ITERATIONS = LEGACY_HASH_ITERATIONS;
+    /** Die maximale Anzahl an Iterationen, die der Algorithmus läuft, bis der Hash vollständig erzeugt wird. */
+    private static final int MAX_HASH_ITERATIONS = 2_000_000;
+    /** Der Wert, auf dessen Vielfaches die gemessene Anzahl an Iterationen gerundet wird. */
+    private static final int ITERATION_STEP = 1000;
     /** Die Länge des Hash. */
     private static final int KEY_LENGTH = 256;
     /** Die Länge des Salzes, welches dem Hash hinzugefügt wird, um den Hash noch sicherer zu gestalten. */
     private static final int SALT_LENGTH = 16;
+    /** Das Zeichen, mit dem die einzelnen Teile eines gespeicherten Hash getrennt werden. */
+    @NotNull
+    private static final String SEPARATOR = ":";
+    /** Die {@link SecretKeyFactory SecretKeyFactories} jedes Threads, welche für alle Berechnungen wiederverwendet werden. */
+    @NotNull
+    private static final ThreadLocal<Map<String, SecretKeyFactory>> KEY_FACTORIES = ThreadLocal.withInitial(HashMap::new);
+    /** Der {@link ExecutorService}, in dem alle Hashes im Hintergrund berechnet werden. */
+    @NotNull
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "password-hash");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //</editor-fold>
+
+
+    //<editor-fold desc="LOCAL FIELDS">
+    /** Die Anzahl an Iterationen, die für diesen Rechner gemessen wurde (oder 0, wenn noch nicht gemessen wurde). */
+    private static int calibratedIterations;
     //</editor-fold>
 
 
@@ -38,7 +92,7 @@ public final class PasswordHandler {
 
     /**
      * Überprüft, ob das eingegebene Passwort mit dem Passwort übereinstimmt, welches als Hash für den Benutzer
-     * abgespeichert wurde.
+     * abgespeichert wurde. Dabei werden auch Hashes im alten Format (Salz und Hash) unterstützt.
      *
      * @param username Der Benutzername des Nutzers, für den das Passwort überprüft werden soll.
      * @param password Das Passwort, welches mit einem bereits gespeicherten Passwort verglichen werden soll.
@@ -46,61 +100,198 @@ public final class PasswordHandler {
      * @return Wenn das eingegebene Passwort mit dem bereits gespeicherten Passwort übereinstimmt {@code true},
      *     ansonsten {@code false} (auch wenn noch kein Passwort für den Benutzer gespeichert wurde).
      */
-    @SneakyThrows
     public static boolean validatePassword(
         @NotNull final String username,
         @NotNull final String password
     ) {
-        final Properties data = PropertyType.DATA_FILE.getProperties();
-        if (!data.containsKey(username)) return false;
+        final HashRecord record = HashRecord.parse(PropertyType.DATA_FILE.getProperties().getProperty(username));
+        if (record == null) return false;
+
+        final byte[] currentPasswordHash = getHash(password, record.algorithm, record.iterations, record.salt);
 
-        final String[] userData = data.getProperty(username).split(":");
-        final byte[] salt = Base64.getDecoder().decode(userData[0]);
+        return MessageDigest.isEqual(currentPasswordHash, record.hash);
+    }
+
+    /**
+     * Überprüft im Hintergrund, ob das eingegebene Passwort mit dem Passwort übereinstimmt, welches als Hash für den
+     * Benutzer abgespeichert wurde (siehe {@link #validatePassword(String, String)}). Dadurch kann die aufwendige
+     * Berechnung des Hash parallel zu anderen Aufgaben (z.B. dem Laden des Stundenplans) ausgeführt werden.
+     *
+     * @param username Der Benutzername des Nutzers, für den das Passwort überprüft werden soll.
+     * @param password Das Passwort, welches mit einem bereits gespeicherten Passwort verglichen werden soll.
+     *
+     * @return Das zukünftige Ergebnis der Überprüfung.
+     */
+    @NotNull
+    public static CompletableFuture<Boolean> validatePasswordAsync(
+        @NotNull final String username,
+        @NotNull final String password
+    ) {
+        return CompletableFuture.supplyAsync(() -> validatePassword(username, password), EXECUTOR);
+    }
 
+    /**
+     * Prüft, ob der gespeicherte Hash eines Nutzers neu berechnet werden muss. Dies ist der Fall, wenn der Hash noch im
+     * alten Format vorliegt, mit einem anderen Algorithmus erzeugt wurde oder wenn dieser Rechner in der gleichen Zeit
+     * mindestens doppelt so viele Iterationen schafft. Ein Hash mit mehr Iterationen wird nicht neu berechnet.
+     *
+     * @param username Der Benutzername des Nutzers, dessen gespeicherter Hash geprüft werden soll.
+     *
+     * @return Wenn der Hash neu berechnet werden muss (auch wenn noch kein Hash existiert) {@code true}, ansonsten
+     *     {@code false}.
+     */
+    public static boolean needsRehash(@NotNull final String username) {
+        final HashRecord record = HashRecord.parse(PropertyType.DATA_FILE.getProperties().getProperty(username));
+        if (record == null || record.legacy || !record.algorithm.equals(HASH_ALGORITHM)) return true;
 
-        final String currentPasswordHash = getHashedPassword(password, salt);
-        final String storedPasswordHash = data.getProperty(username);
+        final int iterations = getCalibratedIterations();
+        return record.iterations < iterations / 2;
+    }
 
-        return storedPasswordHash.equals(currentPasswordHash);
+    /**
+     * Speichert ein Passwort im Hintergrund für einen bestimmten Nutzer in Form eines Hash ab (siehe
+     * {@link #saveHashedPassword(String, String)}).
+     *
+     * @param username Der Benutzername des Nutzers, für den das Passwort als Hash abgespeichert werden soll.
+     * @param password Das Passwort, welches in Form eines Hash abgespeichert werden soll.
+     *
+     * @return Die zukünftige Fertigstellung der Speicherung.
+     */
+    @NotNull
+    public static CompletableFuture<Void> saveHashedPasswordAsync(
+        @NotNull final String username,
+        @NotNull final String password
+    ) {
+        return CompletableFuture.runAsync(() -> saveHashedPassword(username, password), EXECUTOR);
+    }
+
+    /**
+     * Prüft im Hintergrund, ob der gespeicherte Hash eines Nutzers neu berechnet werden muss (siehe
+     * {@link #needsRehash(String)}) und speichert das bereits überprüfte Passwort in diesem Fall neu ab.
+     *
+     * @param username Der Benutzername des Nutzers, dessen gespeicherter Hash gegebenenfalls erneuert werden soll.
+     * @param password Das bereits überprüfte Passwort des Nutzers.
+     */
+    public static void rehashIfNeededAsync(
+        @NotNull final String username,
+        @NotNull final String password
+    ) {
+        EXECUTOR.execute(() -> {
+            if (!needsRehash(username)) return;
+
+            saveHashedPassword(username, password);
+            System.out.println("password hash of " + username + " upgraded.");
+        });
     }
 
     /**
      * Speichert ein Passwort, welches zuvor in einen Hash umgewandelt wurde, für einen bestimmten Nutzer in der
-     * Data-Datei ab.
+     * Data-Datei ab. Der Hash wird mit dem aktuellen Algorithmus und der für diesen Rechner gemessenen Anzahl an
+     * Iterationen erzeugt. Wurde der bisher gespeicherte Hash mit mehr Iterationen erzeugt, wird diese Anzahl
+     * beibehalten.
      *
      * @param username Der Benutzername des Nutzers, für den das Passwort als Hash abgespeichert werden soll.
      * @param password Das Passwort, welches in Form eines Hash abgespeichert werden soll.
      */
-    @SneakyThrows
     public static void saveHashedPassword(
         @NotNull final String username,
         @NotNull final String password
     ) {
         final Properties data = PropertyType.DATA_FILE.getProperties();
-        data.setProperty(username, getHashedPassword(password, getNewSalt()));
+        final HashRecord record = HashRecord.parse(data.getProperty(username));
+
+        final int iterations = Math.max(getCalibratedIterations(), record == null ? 0 : record.iterations);
+        final byte[] salt = getNewSalt();
+        final byte[] hash = getHash(password, HASH_ALGORITHM, iterations, salt);
+
+        data.setProperty(username, new HashRecord(HASH_ALGORITHM, iterations, salt, hash, false).toString());
         PropertyType.DATA_FILE.saveProperties();
     }
 
     /**
-     * Gibt einen Text zurück, welcher in zwei Teile aufgeteilt ist: Der Erste Teil des Textes besteht aus dem Salz,
-     * welches genutzt wird, um den Hash zu erzeugen und der zweite Teil des Textes besteht aus dem erzeugten Hash.
+     * Gibt die Anzahl an Iterationen zurück, mit der die Berechnung eines Hash auf diesem Rechner in etwa
+     * {@value TARGET_DURATION} Millisekunden dauert. Die Leistung dieses Rechners wird nur einmalig gemessen und das
+     * Ergebnis in der Data-Datei gespeichert.
      *
-     * @param password Das Passwort, aus dem der Hash erzeugt werden soll.
-     * @param salt     Das jeweilige Salz, welches dazugegeben wird, um den Hash sicherer zu gestalten.
+     * @return Die Anzahl an Iterationen, die für diesen Rechner gemessen wurde.
+     */
+    private static synchronized int getCalibratedIterations() {
+        if (calibratedIterations > 0) return calibratedIterations;
+
+        final Properties data = PropertyType.DATA_FILE.getProperties();
+        try {
+            calibratedIterations = Integer.parseInt(data.getProperty(CALIBRATION_PROPERTY, "0"));
+        } catch (@NotNull final NumberFormatException ignored) {
+            calibratedIterations = 0;
+        }
+
+        if (calibratedIterations >= MIN_HASH_ITERATIONS && calibratedIterations <= MAX_HASH_ITERATIONS) {
+            return calibratedIterations;
+        }
+
+        final byte[] salt = getNewSalt();
+        long fastest = Long.MAX_VALUE;
+
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            final long start = System.nanoTime();
+            getHash("calibration", HASH_ALGORITHM, CALIBRATION_ITERATIONS, salt);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+
+        final double iterationsPerMilli = CALIBRATION_ITERATIONS / Math.max(fastest / 1_000_000D, 0.001);
+        final long iterations = Math.round(iterationsPerMilli * TARGET_DURATION / ITERATION_STEP) * ITERATION_STEP;
+
+        calibratedIterations = (int) Math.max(MIN_HASH_ITERATIONS, Math.min(MAX_HASH_ITERATIONS, iterations));
+        System.out.println("password hash calibrated to " + calibratedIterations + " iterations.");
+
+        data.setProperty(CALIBRATION_PROPERTY, String.valueOf(calibratedIterations));
+        PropertyType.DATA_FILE.saveProperties();
+
+        return calibratedIterations;
+    }
+
+    /**
+     * Erzeugt den Hash eines Passworts.
+     *
+     * @param password   Das Passwort, aus dem der Hash erzeugt werden soll.
+     * @param algorithm  Der Algorithmus, mit dem der Hash erzeugt werden soll.
+     * @param iterations Die Anzahl an Iterationen, die der Algorithmus läuft.
+     * @param salt       Das jeweilige Salz, welches dazugegeben wird, um den Hash sicherer zu gestalten.
      *
-     * @return Ein Text, welcher in zwei Teile aufgeteilt ist: Der Erste Teil des Textes besteht aus dem Salz, welches
-     *     genutzt wird, um den Hash zu erzeugen und der zweite Teil des Textes besteht aus dem erzeugten Hash.
+     * @return Der Hash des Passworts.
      */
     @SneakyThrows
-    private static String getHashedPassword(
+    private static byte @NotNull [] getHash(
         @NotNull final String password,
+        @NotNull final String algorithm,
+        final int iterations,
         final byte @NotNull [] salt
     ) {
-        final KeySpec spec = new PBEKeySpec(password.toCharArray(), salt, HASH_ITERATIONS, KEY_LENGTH);
-        final SecretKeyFactory keyFactory = SecretKeyFactory.getInstance(HASH_ALGORITHM);
+        final KeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, KEY_LENGTH);
 
-        final byte[] hash = keyFactory.generateSecret(spec).getEncoded();
-        return Base64.getEncoder().encodeToString(salt) + ":" + Base64.getEncoder().encodeToString(hash);
+        return getKeyFactory(algorithm).generateSecret(spec).getEncoded();
+    }
+
+    /**
+     * Gibt die {@link SecretKeyFactory} dieses Threads für einen bestimmten Algorithmus zurück. Die
+     * {@link SecretKeyFactory} wird dabei nur einmalig pro Thread erzeugt.
+     *
+     * @param algorithm Der Algorithmus, für den die {@link SecretKeyFactory} zurückgegeben werden soll.
+     *
+     * @return Die {@link SecretKeyFactory} dieses Threads für den Algorithmus.
+     */
+    @NotNull
+    @SneakyThrows
+    private static SecretKeyFactory getKeyFactory(@NotNull final String algorithm) {
+        final Map<String, SecretKeyFactory> keyFactories = KEY_FACTORIES.get();
+        SecretKeyFactory keyFactory = keyFactories.get(algorithm);
+
+        if (keyFactory == null) {
+            keyFactory = SecretKeyFactory.getInstance(algorithm);
+            keyFactories.put(algorithm, keyFactory);
+        }
+
+        return keyFactory;
     }
 
     /**
@@ -117,4 +308,78 @@ public final class PasswordHandler {
     }
     //</editor-fold>
 
+
+    /**
+     * Ein {@link HashRecord} beschreibt einen gespeicherten Hash eines Passworts. Dieser wird in der Form
+     * {@code algorithmus:iterationen:salz:hash} abgespeichert. Hashes im alten Format ({@code salz:hash}) wurden immer
+     * mit dem Algorithmus {@value LEGACY_HASH_ALGORITHM} und {@value LEGACY_HASH_ITERATIONS} Iterationen erzeugt.
+     */
+    @RequiredArgsConstructor
+    private static final class HashRecord {
+
+        //<editor-fold desc="LOCAL FIELDS">
+        /** Der Algorithmus, mit dem der Hash erzeugt wurde. */
+        @NotNull
+        private final String algorithm;
+        /** Die Anzahl an Iterationen, mit der der Hash erzeugt wurde. */
+        private final int iterations;
+        /** Das Salz, mit dem der Hash erzeugt wurde. */
+        private final byte @NotNull [] salt;
+        /** Der eigentliche Hash. */
+        private final byte @NotNull [] hash;
+        /** Ob der Hash im alten Format (Salz und Hash) gespeichert wurde. */
+        private final boolean legacy;
+        //</editor-fold>
+
+
+        /**
+         * Liest einen gespeicherten Hash im aktuellen oder im alten Format ein.
+         *
+         * @param value Der gespeicherte Hash.
+         *
+         * @return Der eingelesene Hash oder {@code null}, wenn kein (gültiger) Hash gespeichert wurde.
+         */
+        @Nullable
+        private static HashRecord parse(@Nullable final String value) {
+            if (value == null) return null;
+
+            final String[] parts = value.split(SEPARATOR);
+
+            try {
+                if (parts.length == 2) {
+                    return new HashRecord(
+                        LEGACY_HASH_ALGORITHM,
+                        LEGACY_HASH_ITERATIONS,
+                        Base64.getDecoder().decode(parts[0]),
+                        Base64.getDecoder().decode(parts[1]),
+                        true
+                    );
+                }
+
+                if (parts.length != 4 || !SUPPORTED_ALGORITHMS.contains(parts[0])) return null;
+
+                final int iterations = Integer.parseInt(parts[1]);
+                if (iterations <= 0) return null;
+
+                return new HashRecord(
+                    parts[0],
+                    iterations,
+                    Base64.getDecoder().decode(parts[2]),
+                    Base64.getDecoder().decode(parts[3]),
+                    false
+                );
+            } catch (@NotNull final IllegalArgumentException ignored) {
+                return null;
+            }
+        }
+
+        //<editor-fold desc="implementation">
+        @Override
+        public String toString() {
+            return algorithm + SEPARATOR + iterations + SEPARATOR + Base64.getEncoder().encodeToString(salt)
+                + SEPARATOR + Base64.getEncoder().encodeToString(hash);
+        }
+        //</editor-fold>
+    }
+
 }
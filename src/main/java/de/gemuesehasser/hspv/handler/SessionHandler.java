@@ -0,0 +1,190 @@
+package de.gemuesehasser.hspv.handler;
+
+import de.gemuesehasser.hspv.Timetable;
+import org.htmlunit.CookieManager;
+import org.htmlunit.util.Cookie;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Mithilfe des {@link SessionHandler} lässt sich die Sitzung eines Benutzers auf der HSPV- bzw. Antrago-Website (also
+ * alle Cookies und der aufgelöste Download-Link seines Stundenplans) im Cache-Ordner ablegen. Solange diese Sitzung
+ * gültig ist, kann der Stundenplan direkt heruntergeladen werden, ohne den vollständigen Login-Ablauf zu durchlaufen.
+ */
+public final class SessionHandler {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Die Version des Formats, in dem die Sitzung geschrieben wird. */
+    private static final int VERSION = 1;
+    /** Der Wert, der anstelle eines Ablaufdatums geschrieben wird, wenn ein Cookie nur für die Sitzung gilt. */
+    private static final long NO_EXPIRY = Long.MIN_VALUE;
+    //</editor-fold>
+
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Speichert die Sitzung eines bestimmten Benutzers ab. Die Sitzung wird zuerst in eine temporäre Datei geschrieben
+     * und anschließend an ihren Platz verschoben.
+     *
+     * @param username     Der Benutzername des Nutzers, dessen Sitzung gespeichert werden soll.
+     * @param timetableUrl Der aufgelöste Download-Link des Stundenplans des Nutzers.
+     * @param cookies      Alle Cookies der Sitzung.
+     */
+    public static void save(
+        @NotNull final String username,
+        @NotNull final URL timetableUrl,
+        @NotNull final Collection<Cookie> cookies
+    ) {
+        final File file = getSession(username);
+        final File temporaryFile = new File(file.getPath() + ".tmp");
+
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(temporaryFile.toPath())
+        ))) {
+            output.writeInt(VERSION);
+            output.writeUTF(timetableUrl.toString());
+            output.writeInt(cookies.size());
+
+            for (@NotNull final Cookie cookie : cookies) {
+                output.writeUTF(cookie.getName());
+                output.writeUTF(cookie.getValue());
+                writeNullable(output, cookie.getDomain());
+                writeNullable(output, cookie.getPath());
+                output.writeLong(cookie.getExpires() == null ? NO_EXPIRY : cookie.getExpires().getTime());
+                output.writeBoolean(cookie.isSecure());
+                output.writeBoolean(cookie.isHttpOnly());
+                writeNullable(output, cookie.getSameSite());
+            }
+        } catch (@NotNull final IOException e) {
+            System.out.println("failed to save session: " + e.getMessage());
+            return;
+        }
+
+        try {
+            FileHandler.moveAtomically(temporaryFile, file);
+            System.out.println("session saved.");
+        } catch (@NotNull final IOException e) {
+            System.out.println("failed to save session: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lädt die Sitzung eines bestimmten Benutzers in einen {@link CookieManager} und gibt den aufgelösten Download-Link
+     * seines Stundenplans zurück. Bereits abgelaufene Cookies werden dabei verworfen.
+     *
+     * @param username      Der Benutzername des Nutzers, dessen Sitzung geladen werden soll.
+     * @param cookieManager Der {@link CookieManager}, in den die Cookies der Sitzung geladen werden sollen.
+     *
+     * @return Der aufgelöste Download-Link des Stundenplans oder {@code null}, wenn keine Sitzung geladen werden kann.
+     */
+    @Nullable
+    public static URL load(
+        @NotNull final String username,
+        @NotNull final CookieManager cookieManager
+    ) {
+        final File file = getSession(username);
+        if (!file.exists()) return null;
+
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(
+            Files.newInputStream(file.toPath())
+        ))) {
+            if (input.readInt() != VERSION) return null;
+
+            final URL timetableUrl = new URL(input.readUTF());
+            final int cookieCount = input.readInt();
+
+            for (int i = 0; i < cookieCount; i++) {
+                final String name = input.readUTF();
+                final String value = input.readUTF();
+                final String domain = readNullable(input);
+                final String path = readNullable(input);
+                final long expires = input.readLong();
+                final boolean secure = input.readBoolean();
+                final boolean httpOnly = input.readBoolean();
+                final String sameSite = readNullable(input);
+
+                cookieManager.addCookie(new Cookie(
+                    domain,
+                    name,
+                    value,
+                    path,
+                    expires == NO_EXPIRY ? null : new Date(expires),
+                    secure,
+                    httpOnly,
+                    sameSite
+                ));
+            }
+
+            cookieManager.clearExpired(new Date());
+            return timetableUrl;
+        } catch (@NotNull final IOException | RuntimeException e) {
+            System.out.println("failed to load session: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Löscht die gespeicherte Sitzung eines bestimmten Benutzers, z.B. weil diese abgelaufen ist.
+     *
+     * @param username Der Benutzername des Nutzers, dessen Sitzung gelöscht werden soll.
+     */
+    public static void delete(@NotNull final String username) {
+        if (getSession(username).delete()) System.out.println("session deleted.");
+    }
+
+    /**
+     * Schreibt einen Text, welcher auch {@code null} sein kann.
+     *
+     * @param output Der {@link DataOutputStream}, in den der Text geschrieben wird.
+     * @param text   Der Text, welcher geschrieben werden soll.
+     *
+     * @throws IOException Wenn der Text nicht geschrieben werden kann.
+     */
+    private static void writeNullable(
+        @NotNull final DataOutputStream output,
+        @Nullable final String text
+    ) throws IOException {
+        output.writeBoolean(text != null);
+        if (text != null) output.writeUTF(text);
+    }
+
+    /**
+     * Liest einen Text, welcher auch {@code null} sein kann.
+     *
+     * @param input Der {@link DataInputStream}, aus dem der Text gelesen wird.
+     *
+     * @return Der gelesene Text oder {@code null}.
+     *
+     * @throws IOException Wenn der Text nicht gelesen werden kann.
+     */
+    @Nullable
+    private static String readNullable(@NotNull final DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    /**
+     * Gibt die Datei der Sitzung eines bestimmten Benutzers zurück.
+     *
+     * @param username Der Benutzername des Nutzers, dessen Sitzungs-Datei zurückgegeben werden soll.
+     *
+     * @return Die Datei der Sitzung eines bestimmten Benutzers.
+     */
+    @NotNull
+    private static File getSession(@NotNull final String username) {
+        return new File(Timetable.CACHE_FOLDER + File.separator + "session_" + username + ".bin");
+    }
+    //</editor-fold>
+
+}
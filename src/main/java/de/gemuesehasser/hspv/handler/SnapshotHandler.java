@@ -0,0 +1,243 @@
+package de.gemuesehasser.hspv.handler;
+
+import de.gemuesehasser.hspv.Timetable;
+import de.gemuesehasser.hspv.object.LVS;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Mithilfe des {@link SnapshotHandler} lässt sich ein kompakter, binärer Schnappschuss aller bereits eingelesenen
+ * Lehrveranstaltungen neben der ICS-Datei eines Benutzers ablegen. Der Schnappschuss ist an den Hash-Wert der ICS-Datei
+ * gebunden, sodass er nur so lange genutzt wird, wie sich die ICS-Datei nicht verändert hat.
+ */
+public final class SnapshotHandler {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Die Kennung, mit der jede Schnappschuss-Datei beginnt. */
+    private static final int MAGIC = 0x48535056;
+    /** Die Version des Formats, in dem der Schnappschuss geschrieben wird. */
+    private static final int VERSION = 3;
+    /** Der Algorithmus, mit dem der Hash-Wert der ICS-Datei erzeugt wird. */
+    @NotNull
+    private static final String HASH_ALGORITHM = "SHA-256";
+    /** Der Wert, der anstelle eines Enddatums geschrieben wird, wenn eine Lehrveranstaltung kein Enddatum hat. */
+    private static final long NO_END = Long.MIN_VALUE;
+    /** Die Größe des Puffers, in dem die ICS-Datei zur Erzeugung ihres Hash-Werts blockweise gelesen wird. */
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    //</editor-fold>
+
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Gibt den Hash-Wert des Inhalts einer ICS-Datei zurück, an den ein Schnappschuss gebunden wird. Die Datei wird
+     * dabei blockweise in einen Puffer gelesen und nicht in den Speicher eingeblendet, da sich eine eingeblendete Datei
+     * unter Windows nicht ersetzen lässt, bis die Einblendung durch den Garbage-Collector aufgehoben wird.
+     *
+     * @param timetable Die ICS-Datei, deren Hash-Wert erzeugt werden soll.
+     *
+     * @return Der Hash-Wert des Inhalts der ICS-Datei.
+     *
+     * @throws IOException Wenn die Datei nicht gelesen werden kann.
+     */
+    public static byte @NotNull [] getHash(@NotNull final File timetable) throws IOException {
+        try (final FileChannel channel = FileChannel.open(timetable.toPath(), StandardOpenOption.READ)) {
+            final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            final ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+
+            return digest.digest();
+        } catch (@NotNull final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Lädt die Lehrveranstaltungen aus dem Schnappschuss eines bestimmten Benutzers. Wenn kein Schnappschuss
+     * existiert, dieser zu einer anderen Version der ICS-Datei gehört oder beschädigt ist, wird {@code null}
+     * zurückgegeben. Der Schnappschuss wird vollständig eingelesen, damit er anschließend ersetzt werden kann.
+     *
+     * @param username Der Benutzername des Nutzers, dessen Schnappschuss geladen werden soll.
+     * @param hash     Der Hash-Wert der aktuellen ICS-Datei des Nutzers.
+     *
+     * @return Die Lehrveranstaltungen aus dem Schnappschuss oder {@code null}, wenn dieser nicht genutzt werden kann.
+     */
+    @Nullable
+    public static List<LVS> load(
+        @NotNull final String username,
+        final byte @NotNull [] hash
+    ) {
+        final File file = getSnapshot(username);
+        if (!file.exists()) return null;
+
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (buffer.limit() < Long.BYTES) return null;
+
+            // verify the checksum over everything in front of the trailing checksum itself
+            final ByteBuffer content = buffer.duplicate();
+            content.limit(buffer.limit() - Long.BYTES);
+            final CRC32 crc = new CRC32();
+            crc.update(content);
+            if (buffer.getLong(buffer.limit() - Long.BYTES) != crc.getValue()) return null;
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+
+            final byte[] storedHash = new byte[buffer.get() & 0xFF];
+            buffer.get(storedHash);
+            if (!Arrays.equals(storedHash, hash)) return null;
+
+            final int textCount = buffer.getInt();
+            if (textCount < 0 || textCount > buffer.remaining()) return null;
+
+            final String[] texts = new String[textCount];
+            byte[] textBytes = new byte[0];
+
+            for (int i = 0; i < textCount; i++) {
+                final int textLength = buffer.getInt();
+                if (textLength > textBytes.length) textBytes = new byte[textLength];
+                buffer.get(textBytes, 0, textLength);
+
+                texts[i] = DictionaryHandler.intern(new String(textBytes, 0, textLength, StandardCharsets.UTF_8));
+            }
+
+            final int size = buffer.getInt();
+            if (size < 0 || size > buffer.remaining()) return null;
+
+            final List<LVS> lvsList = new ArrayList<>(size);
+
+            for (int i = 0; i < size; i++) {
+                final LocalDateTime start = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+                final long endSeconds = buffer.getLong();
+                final LocalDateTime end = (endSeconds == NO_END) ? null : LocalDateTime.ofEpochSecond(endSeconds, 0, ZoneOffset.UTC);
+
+                lvsList.add(new LVS(
+                    start,
+                    end,
+                    texts[buffer.getInt()],
+                    texts[buffer.getInt()],
+                    texts[buffer.getInt()],
+                    texts[buffer.getInt()],
+                    buffer.getLong(),
+                    buffer.getLong()
+                ));
+            }
+
+            return lvsList;
+        } catch (@NotNull final IOException | RuntimeException e) {
+            System.out.println("failed to load timetable snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Speichert die Lehrveranstaltungen eines bestimmten Benutzers als Schnappschuss ab, welcher an den Hash-Wert der
+     * ICS-Datei gebunden ist, aus der die Lehrveranstaltungen gelesen wurden. Der Schnappschuss wird zuerst in eine
+     * temporäre Datei geschrieben und anschließend an seinen Platz verschoben.
+     *
+     * @param username Der Benutzername des Nutzers, für den der Schnappschuss gespeichert werden soll.
+     * @param hash     Der Hash-Wert der ICS-Datei, aus der die Lehrveranstaltungen gelesen wurden.
+     * @param lvs      Alle Lehrveranstaltungen, die im Schnappschuss gespeichert werden sollen.
+     */
+    public static void save(
+        @NotNull final String username,
+        final byte @NotNull [] hash,
+        @NotNull final Collection<LVS> lvs
+    ) {
+        final File file = getSnapshot(username);
+        final File temporaryFile = new File(file.getPath() + ".tmp");
+
+        final CRC32 crc = new CRC32();
+        try (final DataOutputStream output = new DataOutputStream(new CheckedOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(temporaryFile.toPath())),
+            crc
+        ))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeByte(hash.length);
+            output.write(hash);
+
+            // every distinct text is written only once and referenced by its index afterwards
+            final Map<String, Integer> textIds = new LinkedHashMap<>();
+            for (@NotNull final LVS entry : lvs) {
+                textIds.putIfAbsent(entry.getModule(), textIds.size());
+                textIds.putIfAbsent(entry.getName(), textIds.size());
+                textIds.putIfAbsent(entry.getRoom(), textIds.size());
+                textIds.putIfAbsent(entry.getLecturer(), textIds.size());
+            }
+
+            output.writeInt(textIds.size());
+            for (@NotNull final String text : textIds.keySet()) {
+                final byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(textBytes.length);
+                output.write(textBytes);
+            }
+
+            output.writeInt(lvs.size());
+
+            for (@NotNull final LVS entry : lvs) {
+                output.writeLong(entry.getStart().toEpochSecond(ZoneOffset.UTC));
+                output.writeLong(entry.getEnd() == null ? NO_END : entry.getEnd().toEpochSecond(ZoneOffset.UTC));
+                output.writeInt(textIds.get(entry.getModule()));
+                output.writeInt(textIds.get(entry.getName()));
+                output.writeInt(textIds.get(entry.getRoom()));
+                output.writeInt(textIds.get(entry.getLecturer()));
+                output.writeLong(entry.getKey());
+                output.writeLong(entry.getContentHash());
+            }
+
+            output.writeLong(crc.getValue());
+        } catch (@NotNull final IOException e) {
+            System.out.println("failed to save timetable snapshot: " + e.getMessage());
+            return;
+        }
+
+        try {
+            FileHandler.moveAtomically(temporaryFile, file);
+            System.out.println("timetable snapshot saved.");
+        } catch (@NotNull final IOException e) {
+            System.out.println("failed to save timetable snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gibt die Datei des Schnappschusses eines bestimmten Benutzers zurück.
+     *
+     * @param username Der Benutzername des Nutzers, dessen Schnappschuss-Datei zurückgegeben werden soll.
+     *
+     * @return Die Datei des Schnappschusses eines bestimmten Benutzers.
+     */
+    @NotNull
+    private static File getSnapshot(@NotNull final String username) {
+        return new File(Timetable.CACHE_FOLDER + File.separator + "stundenplan_" + username + ".bin");
+    }
+    //</editor-fold>
+
+}
@@ -2,13 +2,9 @@ package de.gemuesehasser.hspv.handler;
 
 import de.gemuesehasser.hspv.Timetable;
 import de.gemuesehasser.hspv.constant.PropertyType;
-import org.apache.commons.io.FileUtils;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Properties;
 
@@ -20,23 +16,6 @@ public final class UserHandler {
 
     //<editor-fold desc="utility">
 
-    /**
-     * Speichert einen bestimmten Stundenplan ab.
-     *
-     * @param username Der Benutzername des Nutzers, dessen Stundenplan abgespeichert werden soll.
-     * @param content  Der Inhalt des Stundenplans in ICS-Syntax.
-     */
-    public static void saveTimetable(
-        @NotNull final String username,
-        @NotNull final String content
-    ) throws IOException {
-        final File file = new File(Timetable.CACHE_FOLDER + File.separator + "stundenplan_" + username + ".ics");
-        if (file.delete()) {
-            file.createNewFile();
-        }
-        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
-    }
-
     /**
      * Prüft, ob ein Stundenplan für einen bestimmten Benutzer bereits lokal existiert.
      *
@@ -78,27 +57,25 @@ public final class UserHandler {
         @NotNull final String configuration
     ) {
         final Properties configurations = PropertyType.CONFIG_FILE.getProperties();
-        configurations.setProperty(username + "." + path, configuration);
+        configurations.setProperty(getConfigurationKey(username, path), configuration);
         PropertyType.CONFIG_FILE.saveProperties();
     }
 
     /**
-     * Gibt eine gewisse Individualisierung für einen bestimmten Nutzer aus der Konfigurationsdatei zurück. Falls diese
-     * Individualisierung nicht vorhanden ist, wird {@code null} zurückgegeben.
+     * Gibt den vollständigen Schlüssel zurück, unter dem eine gewisse Individualisierung eines bestimmten Nutzers in der
+     * Konfigurationsdatei abgespeichert wird.
      *
-     * @param username Der Benutzername des Nutzers, für den die Individualisierung zurückgegeben werden soll.
-     * @param path     Der Pfad unter dem diese Individualisierung in der Konfigurationsdatei zu finden ist.
+     * @param username Der Benutzername des Nutzers, zu dem die Individualisierung gehört.
+     * @param path     Der Pfad der Individualisierung in der Konfigurationsdatei.
      *
-     * @return eine gewisse Individualisierung für einen bestimmten Nutzer aus der Konfigurationsdatei zurück. Falls
-     *     diese Individualisierung nicht vorhanden ist, {@code null}.
+     * @return Der vollständige Schlüssel der Individualisierung in der Konfigurationsdatei.
      */
-    @Nullable
-    public static String getConfiguration(
+    @NotNull
+    public static String getConfigurationKey(
         @NotNull final String username,
         @NotNull final String path
     ) {
-        final Properties configurations = PropertyType.CONFIG_FILE.getProperties();
-        return configurations.getProperty(username + "." + path);
+        return username + "." + path;
     }
     //</editor-fold>
 
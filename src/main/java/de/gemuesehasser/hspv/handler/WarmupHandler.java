@@ -0,0 +1,254 @@
+package de.gemuesehasser.hspv.handler;
+
+import lombok.RequiredArgsConstructor;
+import org.htmlunit.WebClient;
+import org.htmlunit.html.HtmlPage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Mithilfe des {@link WarmupHandler} lassen sich alle Vorbereitungen für den Login bereits im Hintergrund treffen,
+ * während der Nutzer noch seine Benutzerdaten eingibt. Dabei werden die Hosts der HSPV und von Antrago aufgelöst, die
+ * Verbindung geprüft, ein fertig konfigurierter {@link WebClient} erzeugt und die Login-Seite bereits geladen. Beim
+ * Abschicken der Benutzerdaten bleiben dadurch nur noch der eigentliche Login und der Download übrig. Für jeden
+ * vorbereiteten Schritt wird protokolliert, wie viel Zeit durch ihn beim Login eingespart wurde.
+ */
+public final class WarmupHandler {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Die Login-Seite der HSPV-Website. */
+    @NotNull
+    public static final String LOGIN_URL = "https://www.hspv.nrw.de/anmelden";
+    /** Alle Hosts, die vorab aufgelöst werden. */
+    @NotNull
+    private static final String @NotNull [] HOSTS = {"www.hspv.nrw.de", "mvc.antrago.hspv.nrw.de"};
+    /** Die Zeit in Millisekunden, die beim Login höchstens auf eine laufende Vorbereitung gewartet wird. */
+    private static final long MAX_WAIT = TimeUnit.SECONDS.toMillis(10);
+    /** Die Zeit in Millisekunden, nach der eine vorab geladene Login-Seite nicht mehr genutzt wird. */
+    private static final long LOGIN_PAGE_LIFETIME = TimeUnit.MINUTES.toMillis(5);
+    /** Der {@link ExecutorService}, in dem die Vorbereitungen im Hintergrund getroffen werden. */
+    @NotNull
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "login-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //</editor-fold>
+
+
+    //<editor-fold desc="LOCAL FIELDS">
+    /** Die aktuell laufende bzw. bereits abgeschlossene Vorbereitung, die noch nicht genutzt wurde. */
+    @Nullable
+    private static CompletableFuture<Warmup> warmup;
+    /** Die Vorbereitung, deren {@link WebClient} zuletzt herausgegeben wurde und deren Login-Seite noch nicht genutzt wurde. */
+    @Nullable
+    private static Warmup handedOver;
+    //</editor-fold>
+
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Startet die Vorbereitungen für den Login im Hintergrund, sofern nicht bereits eine Vorbereitung läuft oder auf
+     * ihre Nutzung wartet.
+     */
+    public static synchronized void start() {
+        if (warmup != null) return;
+
+        final long start = System.currentTimeMillis();
+        warmup = CompletableFuture.supplyAsync(() -> prepare(start), EXECUTOR);
+    }
+
+    /**
+     * Gibt einen fertig konfigurierten {@link WebClient} zurück. Wurde dieser bereits im Hintergrund vorbereitet, wird
+     * dieser genutzt (und gegebenenfalls noch kurz auf seine Fertigstellung gewartet), ansonsten wird ein neuer
+     * {@link WebClient} erzeugt. Dabei wird protokolliert, wie viel Zeit die Vorbereitung des {@link WebClient} und die
+     * (noch zwischengespeicherte) Prüfung der Verbindung eingespart haben.
+     *
+     * @return Ein fertig konfigurierter {@link WebClient}.
+     */
+    @NotNull
+    public static WebClient getWebClient() {
+        final Warmup prepared = take();
+        if (prepared != null) {
+            synchronized (WarmupHandler.class) {
+                handedOver = prepared;
+            }
+
+            if (prepared.connected && ConnectionHandler.isCached()) {
+                System.out.println("connection check taken from warm-up (saved " + prepared.connectionDuration + " ms).");
+            }
+            System.out.println("web client taken from warm-up (saved " + prepared.webClientDuration + " ms).");
+
+            return prepared.webClient;
+        }
+
+        return createWebClient();
+    }
+
+    /**
+     * Gibt die Login-Seite zurück, welche bereits im Hintergrund mit einem bestimmten {@link WebClient} geladen wurde.
+     * Existiert keine (ausreichend aktuelle) Login-Seite für diesen {@link WebClient}, wird die Login-Seite neu
+     * geladen.
+     *
+     * @param webClient Der {@link WebClient}, mit dem die Login-Seite geladen werden soll.
+     *
+     * @return Die Login-Seite der HSPV-Website.
+     *
+     * @throws IOException Wenn die Login-Seite nicht geladen werden kann.
+     */
+    @NotNull
+    public static HtmlPage getLoginPage(@NotNull final WebClient webClient) throws IOException {
+        final Warmup prepared;
+        synchronized (WarmupHandler.class) {
+            prepared = handedOver;
+            handedOver = null;
+        }
+
+        if (prepared != null && prepared.webClient == webClient && prepared.loginPage != null
+            && System.currentTimeMillis() - prepared.loginPageLoaded < LOGIN_PAGE_LIFETIME) {
+            System.out.println("HSPV-Login-Page taken from warm-up (saved " + prepared.loginPageDuration + " ms).");
+            return prepared.loginPage;
+        }
+
+        return webClient.getPage(LOGIN_URL);
+    }
+
+    /**
+     * Erzeugt einen neuen {@link WebClient}, welcher für den Login auf der HSPV-Website konfiguriert ist.
+     *
+     * @return Ein neuer, fertig konfigurierter {@link WebClient}.
+     */
+    @NotNull
+    public static WebClient createWebClient() {
+        final WebClient webClient = new WebClient();
+        webClient.getOptions().setThrowExceptionOnScriptError(false);
+        webClient.getOptions().setJavaScriptEnabled(false);
+        webClient.getOptions().setRedirectEnabled(true);
+        webClient.getOptions().setCssEnabled(false);
+        webClient.getOptions().setUseInsecureSSL(true);
+        webClient.getOptions().setThrowExceptionOnFailingStatusCode(false);
+        webClient.getCookieManager().setCookiesEnabled(true);
+
+        return webClient;
+    }
+
+    /**
+     * Übernimmt die aktuelle Vorbereitung, sodass diese nicht ein weiteres Mal genutzt wird. Läuft die Vorbereitung
+     * noch, wird höchstens {@value MAX_WAIT} Millisekunden auf ihre Fertigstellung gewartet.
+     *
+     * @return Die abgeschlossene Vorbereitung oder {@code null}, wenn keine (erfolgreiche) Vorbereitung existiert.
+     */
+    @Nullable
+    private static Warmup take() {
+        final CompletableFuture<Warmup> current;
+        synchronized (WarmupHandler.class) {
+            current = warmup;
+            warmup = null;
+        }
+
+        if (current == null) return null;
+
+        try {
+            return current.get(MAX_WAIT, TimeUnit.MILLISECONDS);
+        } catch (@NotNull final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (@NotNull final ExecutionException | TimeoutException e) {
+            System.out.println("warm-up not usable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Trifft alle Vorbereitungen für den Login und protokolliert, nach wie vielen Millisekunden der jeweilige Schritt
+     * abgeschlossen wurde.
+     *
+     * @param start Der Zeitpunkt (in Millisekunden), an dem die Vorbereitungen angestoßen wurden.
+     *
+     * @return Die abgeschlossene Vorbereitung.
+     */
+    @NotNull
+    private static Warmup prepare(final long start) {
+        for (@NotNull final String host : HOSTS) {
+            try {
+                InetAddress.getAllByName(host);
+            } catch (@NotNull final UnknownHostException ignored) {
+                // the connection check below will fail as well
+            }
+        }
+        System.out.println("warm-up: hosts resolved after " + (System.currentTimeMillis() - start) + " ms.");
+
+        final long connectionStart = System.currentTimeMillis();
+        final boolean connected = ConnectionHandler.probeInAdvance();
+        final long connectionDuration = System.currentTimeMillis() - connectionStart;
+        System.out.println("warm-up: connection checked after " + (System.currentTimeMillis() - start) + " ms.");
+
+        // the web client is created in any case, as the connection might be available again once the user logs in
+        final long webClientStart = System.currentTimeMillis();
+        final WebClient webClient = createWebClient();
+        final long webClientDuration = System.currentTimeMillis() - webClientStart;
+        System.out.println("warm-up: web client created after " + (System.currentTimeMillis() - start) + " ms.");
+
+        if (!connected) return new Warmup(webClient, false, connectionDuration, webClientDuration, null, 0, 0);
+
+        final long loginPageStart = System.currentTimeMillis();
+        try {
+            final HtmlPage page = webClient.getPage(LOGIN_URL);
+            final long loginPageLoaded = System.currentTimeMillis();
+            System.out.println("warm-up: HSPV-Login-Page loaded after " + (loginPageLoaded - start) + " ms.");
+
+            return new Warmup(
+                webClient,
+                connected,
+                connectionDuration,
+                webClientDuration,
+                page,
+                loginPageLoaded,
+                loginPageLoaded - loginPageStart
+            );
+        } catch (@NotNull final IOException | RuntimeException e) {
+            System.out.println("warm-up: failed to load HSPV-Login-Page: " + e.getMessage());
+            return new Warmup(webClient, connected, connectionDuration, webClientDuration, null, 0, 0);
+        }
+    }
+    //</editor-fold>
+
+
+    /**
+     * Eine {@link Warmup Vorbereitung} enthält alle Objekte, die bereits im Hintergrund für den Login erzeugt wurden.
+     */
+    @RequiredArgsConstructor
+    private static final class Warmup {
+
+        //<editor-fold desc="LOCAL FIELDS">
+        /** Der fertig konfigurierte {@link WebClient}. */
+        @NotNull
+        private final WebClient webClient;
+        /** Ob bei der Prüfung eine Verbindung bestand. */
+        private final boolean connected;
+        /** Die Zeit in Millisekunden, die die Prüfung der Verbindung gedauert hat. */
+        private final long connectionDuration;
+        /** Die Zeit in Millisekunden, die das Erzeugen des {@link WebClient} gedauert hat. */
+        private final long webClientDuration;
+        /** Die bereits geladene Login-Seite oder {@code null}, wenn diese nicht geladen werden konnte. */
+        @Nullable
+        private final HtmlPage loginPage;
+        /** Der Zeitpunkt (in Millisekunden), an dem die Login-Seite geladen wurde. */
+        private final long loginPageLoaded;
+        /** Die Zeit in Millisekunden, die das Laden der Login-Seite gedauert hat. */
+        private final long loginPageDuration;
+        //</editor-fold>
+    }
+
+}
@@ -2,57 +2,96 @@ package de.gemuesehasser.hspv.handler;
 
 import de.gemuesehasser.hspv.Timetable;
 import de.gemuesehasser.hspv.object.LVS;
+import de.gemuesehasser.hspv.object.LvsIndex;
+import de.gemuesehasser.hspv.object.WeekLayout;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Range;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Mithilfe dieses Handlers lassen sich die Lehrveranstaltungen einer bestimmten Woche aus allen Lehrveranstaltungen
- * herausfiltern und zurückgeben.
+ * abfragen und zurückgeben. Zusätzlich lassen sich die Lehrveranstaltungen und Layouts der benachbarten Wochen im
+ * Hintergrund vorbereiten, sodass ein Wechsel der Woche ohne Berechnungen angezeigt werden kann.
  */
 public final class WeekTimetableHandler {
 
+    //<editor-fold desc="CONSTANTS">
+    /** Die Anzahl an Wochen vor und nach der angezeigten Woche, die im Hintergrund vorbereitet werden. */
+    private static final int PREFETCH_RANGE = 3;
+    /** Der {@link ExecutorService}, in dem die benachbarten Wochen im Hintergrund vorbereitet werden. */
+    @NotNull
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "week-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Die Nummer der Woche seit der Epoche, deren benachbarte Wochen zuletzt angefordert wurden. */
+    @NotNull
+    private static final AtomicLong PREFETCH_TARGET = new AtomicLong();
+    //</editor-fold>
+
+
     /**
-     * Filtert die Lehrveranstaltungen einer bestimmten Woche aus allen Lehrveranstaltungen heraus und gibt diese
-     * zurück.
+     * Gibt die Lehrveranstaltungen einer bestimmten Woche aus allen Lehrveranstaltungen zurück. Die Lehrveranstaltungen
+     * sind bereits beim Laden nach Wochen gruppiert worden, weshalb hierbei weder gefiltert noch ein neues Objekt
+     * erzeugt wird.
      *
-     * @param weekAddition Die Anzahl an Wochen, die zu der aktuellen Woche dazuaddiert werden soll, um die Woche zu
-     *                     ermitteln, für die die Lehrveranstaltungen herausgefiltert werden sollen (Negative
-     *                     Wochenzahlen funktionieren auch).
+     * @param epochWeek Die Nummer der Woche seit der Epoche (siehe {@link LvsIndex#getEpochWeek(LocalDate)}), für die
+     *                  die Lehrveranstaltungen zurückgegeben werden sollen.
      *
-     * @return Die gefilterten Lehrveranstaltungen einer bestimmten Woche aus allen Lehrveranstaltungen.
+     * @return Die Lehrveranstaltungen der Woche, sortiert nach ihrer Startzeit.
      */
-    @NotNull
-    public static LinkedList<LVS> getWeekLvs(@Range(from = 0, to = Integer.MAX_VALUE) final int weekAddition) {
-        final LinkedList<LVS> lvsList = new LinkedList<>();
-
-        final DayOfWeek currentDay = LocalDate.now().getDayOfWeek();
-        final LocalDate begin = LocalDate.now()
-            .minusDays(currentDay.getValue() - 1)
-            .plusDays(weekAddition * 7L);
-        final LocalDate end = begin.plusDays(5);
+    public static LVS @NotNull [] getWeekLvs(final long epochWeek) {
+        return Timetable.getLvsIndex().getWeek(epochWeek);
+    }
 
-        for (@NotNull final Map.Entry<LocalDateTime, LVS> lvsEntry : Timetable.getLvsMap().entrySet()) {
-            final LocalDateTime lvsDate = lvsEntry.getKey();
-            final LVS lvs = lvsEntry.getValue();
+    /**
+     * Gibt die Lehrveranstaltungen der Woche, in der ein bestimmtes Datum liegt, aus allen Lehrveranstaltungen zurück.
+     *
+     * @param date Ein beliebiges Datum innerhalb der Woche, für die die Lehrveranstaltungen zurückgegeben werden
+     *             sollen.
+     *
+     * @return Die Lehrveranstaltungen der Woche, in der das Datum liegt, sortiert nach ihrer Startzeit.
+     */
+    public static LVS @NotNull [] getWeekLvs(@NotNull final LocalDate date) {
+        return getWeekLvs(LvsIndex.getEpochWeek(date));
+    }
 
-            if (lvsDate.isBefore(begin.atStartOfDay())) continue;
-            if (lvsDate.isAfter(end.atStartOfDay())) continue;
+    /**
+     * Gibt das Layout einer bestimmten Woche zurück (siehe {@link LayoutHandler#getWeekLayout(long, LVS[])}). Wurde die
+     * Woche bereits im Hintergrund vorbereitet, wird das vorbereitete Layout zurückgegeben.
+     *
+     * @param epochWeek Die Nummer der Woche seit der Epoche (siehe {@link LvsIndex#getEpochWeek(LocalDate)}).
+     *
+     * @return Das Layout der Woche.
+     */
+    @NotNull
+    public static WeekLayout getWeekLayout(final long epochWeek) {
+        return LayoutHandler.getWeekLayout(epochWeek, getWeekLvs(epochWeek));
+    }
 
-            lvsList.add(lvs);
-        }
+    /**
+     * Bereitet die Lehrveranstaltungen und Layouts der {@value PREFETCH_RANGE} Wochen vor und nach einer bestimmten
+     * Woche im Hintergrund vor, beginnend mit den nächstgelegenen Wochen. Wird in der Zwischenzeit bereits eine andere
+     * Woche angefordert, werden die noch nicht vorbereiteten Wochen der vorherigen Anforderung übersprungen.
+     *
+     * @param epochWeek Die Nummer der Woche seit der Epoche, deren benachbarte Wochen vorbereitet werden sollen.
+     */
+    public static void prefetchAdjacentWeeks(final long epochWeek) {
+        PREFETCH_TARGET.set(epochWeek);
 
-        if (lvsList.isEmpty()) {
-            lvsList.add(new LVS(begin.atStartOfDay(), null, null));
-        }
+        EXECUTOR.execute(() -> {
+            for (int distance = 1; distance <= PREFETCH_RANGE; distance++) {
+                if (PREFETCH_TARGET.get() != epochWeek) return;
+                getWeekLayout(epochWeek + distance);
 
-        return lvsList;
+                if (PREFETCH_TARGET.get() != epochWeek) return;
+                getWeekLayout(epochWeek - distance);
+            }
+        });
     }
 
-
 }
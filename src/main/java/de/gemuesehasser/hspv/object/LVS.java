@@ -1,31 +1,22 @@
 package de.gemuesehasser.hspv.object;
 
+import de.gemuesehasser.hspv.handler.DictionaryHandler;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.awt.Color;
 import java.time.LocalDateTime;
-import java.util.Random;
 
 /**
- * Eine {@link LVS Lehrveranstaltung} besteht aus einem Start- und End-Datum/Zeitpunkt und einer jeweiligen Beschreibung
- * der Veranstaltung.
+ * Eine {@link LVS Lehrveranstaltung} besteht aus einem Start- und End-Datum/Zeitpunkt und den einzelnen Angaben aus der
+ * Beschreibung der Veranstaltung (Modul, Name, Raum und Dozent). Die Angaben werden bereits beim Einlesen einmalig aus
+ * der Beschreibung gelesen und über den {@link DictionaryHandler} mit allen anderen Lehrveranstaltungen geteilt.
  */
 @Getter
 @RequiredArgsConstructor
 public final class LVS {
 
-    //<editor-fold desc="CONSTANTS">
-    /** Der höchste zufällig generierte Wert der Farbe Rot / Grün / Blau. */
-    private static final int HIGHEST_COLOR_VALUE = 250;
-    /** Der niedrigste zufällig generierte Wert der Farbe Rot / Grün / Blau. */
-    private static final int LOWEST_COLOR_VALUE = 115;
-    //</editor-fold>
-
-
     //<editor-fold desc="LOCAL FIELDS">
     /** Das Startdatum/Zeitpunkt der Veranstaltung. */
     @NotNull
@@ -33,35 +24,65 @@ public final class LVS {
     /** Das Enddatum/Zeitpunkt der Veranstaltung. */
     @Nullable
     private final LocalDateTime end;
-    /** Die Beschreibung der Veranstaltung. */
-    @Nullable
-    private final String description;
-    /** Die Farbe dieser Lehrveranstaltung. */
-    @Setter
+    /** Die Modulbezeichnung der Veranstaltung. */
+    @NotNull
+    private final String module;
+    /**
+     * Der Name der Veranstaltung. Dieser enthält (wie in der Beschreibung) das führende Leerzeichen hinter der
+     * Modulbezeichnung, da unter diesem Namen auch die Farbe der Veranstaltung abgespeichert wird.
+     */
+    @NotNull
+    private final String name;
+    /** Der Raum, in dem die Veranstaltung stattfindet. */
     @NotNull
-    private Color color = getRandomColor();
+    private final String room;
+    /** Der Name des Dozenten der Veranstaltung. */
+    @NotNull
+    private final String lecturer;
+    /**
+     * Die Kennung der Veranstaltung (Hash-Wert ihrer UID bzw. ihres Inhalts), anhand derer sie in einer neuen Version
+     * der ICS-Datei wiedergefunden wird.
+     */
+    private final long key;
+    /** Der Hash-Wert des Inhalts der Veranstaltung in der ICS-Datei (ohne Zeitstempel), anhand dessen Änderungen erkannt werden. */
+    private final long contentHash;
     //</editor-fold>
 
 
-    //<editor-fold desc="utility">
-
     /**
-     * Gibt eine zufällige, aber schlichte Farbe zurück, mit der die Lehrveranstaltung initialisiert wird, wenn der
-     * Nutzer keine eigene Farbe festgelegt hat.
+     * Erzeugt eine neue {@link LVS Lehrveranstaltung} auf der Grundlage der Beschreibung aus der ICS-Datei. Die
+     * Beschreibung enthält zeilenweise den Kurs, die Modulbezeichnung mit dem Namen der Veranstaltung, den Raum und den
+     * Dozenten.
      *
-     * @return Eine zufällige, aber schlichte Farbe, mit der die Lehrveranstaltung initialisiert wird, wenn der Nutzer
-     *     keine eigene Farbe festgelegt hat.
+     * @param start       Das Startdatum/Zeitpunkt der Veranstaltung.
+     * @param end         Das Enddatum/Zeitpunkt der Veranstaltung.
+     * @param description Die Beschreibung der Veranstaltung.
+     * @param key         Die Kennung der Veranstaltung (Hash-Wert ihrer UID bzw. ihres Inhalts).
+     * @param contentHash Der Hash-Wert des Inhalts der Veranstaltung in der ICS-Datei.
+     *
+     * @return Eine neue {@link LVS Lehrveranstaltung} auf der Grundlage der Beschreibung aus der ICS-Datei.
      */
     @NotNull
-    private static Color getRandomColor() {
-        final Random random = new Random();
-        final int colorChoice = random.nextInt(3);
-
-        final int r = (colorChoice == 0) ? 255 : random.nextInt(HIGHEST_COLOR_VALUE - LOWEST_COLOR_VALUE + 1) + LOWEST_COLOR_VALUE;
-        final int g = (colorChoice == 1) ? 255 : random.nextInt(HIGHEST_COLOR_VALUE - LOWEST_COLOR_VALUE + 1) + LOWEST_COLOR_VALUE;
-        final int b = (colorChoice == 2) ? 255 : random.nextInt(HIGHEST_COLOR_VALUE - LOWEST_COLOR_VALUE + 1) + LOWEST_COLOR_VALUE;
+    public static LVS fromDescription(
+        @NotNull final LocalDateTime start,
+        @Nullable final LocalDateTime end,
+        @NotNull final String description,
+        final long key,
+        final long contentHash
+    ) {
+        final String[] descriptionParts = description.split("\n");
+        final String title = (descriptionParts.length > 1 ? descriptionParts[1] : "");
+        final int separatorIndex = title.indexOf(' ');
 
-        return new Color(r, g, b);
+        return new LVS(
+            start,
+            end,
+            DictionaryHandler.intern(separatorIndex < 0 ? "" : title.substring(0, separatorIndex)),
+            DictionaryHandler.intern(separatorIndex < 0 ? title : title.substring(separatorIndex)),
+            DictionaryHandler.intern(descriptionParts.length > 2 ? descriptionParts[2] : ""),
+            DictionaryHandler.intern(descriptionParts.length > 3 ? descriptionParts[3] : ""),
+            key,
+            contentHash
+        );
     }
-    //</editor-fold>
 }
@@ -0,0 +1,79 @@
+package de.gemuesehasser.hspv.object;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ein {@link LvsChangeSet} enthält alle Änderungen zwischen zwei Versionen eines Stundenplans. Dabei wird zwischen
+ * hinzugefügten, entfernten und verschobenen (also inhaltlich veränderten) Lehrveranstaltungen unterschieden.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class LvsChangeSet {
+
+    //<editor-fold desc="LOCAL FIELDS">
+    /** Alle Lehrveranstaltungen, die in der neuen Version des Stundenplans hinzugekommen sind. */
+    @NotNull
+    private final List<LVS> added;
+    /** Alle Lehrveranstaltungen, die in der neuen Version des Stundenplans nicht mehr enthalten sind. */
+    @NotNull
+    private final List<LVS> removed;
+    /** Alle verschobenen Lehrveranstaltungen, wobei jeder alten Version der Veranstaltung ihre neue Version zugeordnet ist. */
+    @NotNull
+    private final Map<LVS, LVS> moved;
+    //</editor-fold>
+
+
+    /**
+     * Gibt die Anzahl aller Lehrveranstaltungen zurück, die sich zwischen den beiden Versionen verändert haben.
+     *
+     * @return Die Anzahl aller Lehrveranstaltungen, die sich zwischen den beiden Versionen verändert haben.
+     */
+    @Range(from = 0, to = Integer.MAX_VALUE)
+    public int size() {
+        return added.size() + removed.size() + moved.size();
+    }
+
+    /**
+     * Prüft, ob sich zwischen den beiden Versionen des Stundenplans keine Lehrveranstaltung verändert hat.
+     *
+     * @return Wenn sich keine Lehrveranstaltung verändert hat {@code true}, ansonsten {@code false}.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gibt die Nummern aller Wochen seit der Epoche zurück, in denen sich mindestens eine Lehrveranstaltung verändert
+     * hat (siehe {@link LvsIndex#getEpochWeek(java.time.LocalDate)}).
+     *
+     * @return Die Nummern aller Wochen, in denen sich mindestens eine Lehrveranstaltung verändert hat.
+     */
+    @NotNull
+    public Set<Long> getAffectedWeeks() {
+        final Set<Long> weeks = new HashSet<>();
+
+        for (@NotNull final LVS lvs : added) {
+            weeks.add(LvsIndex.getEpochWeek(lvs.getStart().toLocalDate()));
+        }
+
+        for (@NotNull final LVS lvs : removed) {
+            weeks.add(LvsIndex.getEpochWeek(lvs.getStart().toLocalDate()));
+        }
+
+        for (@NotNull final Map.Entry<LVS, LVS> entry : moved.entrySet()) {
+            weeks.add(LvsIndex.getEpochWeek(entry.getKey().getStart().toLocalDate()));
+            weeks.add(LvsIndex.getEpochWeek(entry.getValue().getStart().toLocalDate()));
+        }
+
+        return weeks;
+    }
+
+}
@@ -0,0 +1,448 @@
+package de.gemuesehasser.hspv.object;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ein {@link LvsColumnStore} speichert alle Lehrveranstaltungen eines Stundenplans spaltenweise in primitiven Arrays,
+ * sortiert nach ihrer Startzeit. Die Startzeit wird dabei in Minuten seit der Epoche, die Dauer in Minuten und alle
+ * Texte (Modul, Name, Raum und Dozent) als Verweis auf ein gemeinsames Wörterbuch gespeichert. Dadurch benötigen auch
+ * Stundenpläne über mehrere Jahre nur wenig Speicher. Eine {@link LVS Lehrveranstaltung} wird erst erzeugt, wenn sie
+ * tatsächlich abgefragt wird. Die Lehrveranstaltungen einzelner Wochen werden anschließend für weitere Abfragen
+ * wiederverwendet, während die Abfrage aller Lehrveranstaltungen nur vorübergehende Instanzen erzeugt.
+ */
+public final class LvsColumnStore {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Die (leere) Woche, die für alle Wochen ohne Lehrveranstaltungen zurückgegeben wird. */
+    private static final LVS @NotNull [] EMPTY_WEEK = new LVS[0];
+    /** Der Wert, der anstelle der Dauer gespeichert wird, wenn eine Lehrveranstaltung kein Ende besitzt. */
+    private static final int NO_END = -1;
+    /** Die Anzahl an Minuten eines Tages. */
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    //</editor-fold>
+
+
+    //<editor-fold desc="LOCAL FIELDS">
+    /** Die Startzeit jeder Lehrveranstaltung in Minuten seit der Epoche (aufsteigend sortiert). */
+    private final int @NotNull [] startMinutes;
+    /** Die Dauer jeder Lehrveranstaltung in Minuten (oder {@value NO_END}, wenn sie kein Ende besitzt). */
+    private final int @NotNull [] durations;
+    /** Der Verweis auf die Modulbezeichnung jeder Lehrveranstaltung im Wörterbuch. */
+    private final int @NotNull [] modules;
+    /** Der Verweis auf den Namen jeder Lehrveranstaltung im Wörterbuch. */
+    private final int @NotNull [] names;
+    /** Der Verweis auf den Raum jeder Lehrveranstaltung im Wörterbuch. */
+    private final int @NotNull [] rooms;
+    /** Der Verweis auf den Dozenten jeder Lehrveranstaltung im Wörterbuch. */
+    private final int @NotNull [] lecturers;
+    /** Die Kennung jeder Lehrveranstaltung. */
+    private final long @NotNull [] keys;
+    /** Der Hash-Wert des Inhalts jeder Lehrveranstaltung. */
+    private final long @NotNull [] contentHashes;
+    /** Das Wörterbuch aller Texte, auf die die Lehrveranstaltungen verweisen. */
+    private final String @NotNull [] dictionary;
+    /** Alle bereits einzeln abgefragten Lehrveranstaltungen (oder {@code null}, wenn eine noch nicht abgefragt wurde). */
+    private final LVS @NotNull [] views;
+    /** Die bereits abgefragten Wochen (ab {@code firstWeek}) oder {@code null}, wenn eine noch nicht abgefragt wurde. */
+    private LVS @NotNull [] @Nullable [] weeks = new LVS[0][];
+    /** Die Nummer der ersten Woche (seit der Epoche), für die Lehrveranstaltungen in {@code weeks} liegen. */
+    private long firstWeek;
+    //</editor-fold>
+
+
+    //<editor-fold desc="CONSTRUCTORS">
+
+    /**
+     * Erzeugt einen neuen {@link LvsColumnStore} auf der Grundlage mehrerer Lehrveranstaltungen, welche bereits nach
+     * ihrer Startzeit sortiert sind. Die übergebenen Instanzen werden dabei nicht weiter referenziert.
+     *
+     * @param lvsList Alle Lehrveranstaltungen, sortiert nach ihrer Startzeit.
+     */
+    public LvsColumnStore(@NotNull final List<LVS> lvsList) {
+        final int size = lvsList.size();
+        final Map<String, Integer> dictionaryIds = new HashMap<>();
+        final List<String> dictionaryList = new ArrayList<>();
+
+        this.startMinutes = new int[size];
+        this.durations = new int[size];
+        this.modules = new int[size];
+        this.names = new int[size];
+        this.rooms = new int[size];
+        this.lecturers = new int[size];
+        this.keys = new long[size];
+        this.contentHashes = new long[size];
+        this.views = new LVS[size];
+
+        for (int i = 0; i < size; i++) {
+            set(i, lvsList.get(i), dictionaryIds, dictionaryList);
+        }
+
+        this.dictionary = dictionaryList.toArray(new String[0]);
+    }
+
+    /**
+     * Erzeugt einen neuen {@link LvsColumnStore} auf der Grundlage eines bestehenden {@link LvsColumnStore}, in den
+     * alle Änderungen eines {@link LvsChangeSet} übernommen werden. Entfernte Lehrveranstaltungen werden dabei anhand
+     * des Hash-Werts ihres Inhalts erkannt, sodass es nicht auf die Instanz ankommt, mit der sie abgefragt wurden. Alle
+     * unveränderten Zeilen werden direkt übernommen, ohne dass dafür eine {@link LVS Lehrveranstaltung} erzeugt wird.
+     *
+     * @param base      Der bestehende {@link LvsColumnStore}.
+     * @param changeSet Die Änderungen, die übernommen werden sollen.
+     */
+    private LvsColumnStore(
+        @NotNull final LvsColumnStore base,
+        @NotNull final LvsChangeSet changeSet
+    ) {
+        final Map<Long, Integer> removedCounts = new HashMap<>();
+        for (@NotNull final LVS lvs : changeSet.getRemoved()) {
+            removedCounts.merge(lvs.getContentHash(), 1, Integer::sum);
+        }
+        for (@NotNull final LVS lvs : changeSet.getMoved().keySet()) {
+            removedCounts.merge(lvs.getContentHash(), 1, Integer::sum);
+        }
+
+        final boolean[] kept = new boolean[base.size()];
+        int keptCount = 0;
+        for (int i = 0; i < base.size(); i++) {
+            final Integer count = removedCounts.get(base.contentHashes[i]);
+            if (count != null && count > 0) {
+                removedCounts.put(base.contentHashes[i], count - 1);
+                continue;
+            }
+
+            kept[i] = true;
+            keptCount++;
+        }
+
+        final List<LVS> inserted = new ArrayList<>(changeSet.getAdded());
+        inserted.addAll(changeSet.getMoved().values());
+        inserted.sort(Comparator.comparing(LVS::getStart));
+
+        final int size = keptCount + inserted.size();
+        final Map<String, Integer> dictionaryIds = new HashMap<>();
+        final List<String> dictionaryList = new ArrayList<>(Arrays.asList(base.dictionary));
+        for (int i = 0; i < base.dictionary.length; i++) {
+            dictionaryIds.put(base.dictionary[i], i);
+        }
+
+        this.startMinutes = new int[size];
+        this.durations = new int[size];
+        this.modules = new int[size];
+        this.names = new int[size];
+        this.rooms = new int[size];
+        this.lecturers = new int[size];
+        this.keys = new long[size];
+        this.contentHashes = new long[size];
+        this.views = new LVS[size];
+
+        int baseRow = 0;
+        int insertedIndex = 0;
+        for (int i = 0; i < size; i++) {
+            while (baseRow < kept.length && !kept[baseRow]) baseRow++;
+
+            final boolean fromBase = baseRow < kept.length && (insertedIndex >= inserted.size()
+                || base.startMinutes[baseRow] <= toEpochMinute(inserted.get(insertedIndex).getStart()));
+
+            if (!fromBase) {
+                set(i, inserted.get(insertedIndex++), dictionaryIds, dictionaryList);
+                continue;
+            }
+
+            this.startMinutes[i] = base.startMinutes[baseRow];
+            this.durations[i] = base.durations[baseRow];
+            this.modules[i] = base.modules[baseRow];
+            this.names[i] = base.names[baseRow];
+            this.rooms[i] = base.rooms[baseRow];
+            this.lecturers[i] = base.lecturers[baseRow];
+            this.keys[i] = base.keys[baseRow];
+            this.contentHashes[i] = base.contentHashes[baseRow];
+            this.views[i] = base.views[baseRow];
+            baseRow++;
+        }
+
+        this.dictionary = dictionaryList.toArray(new String[0]);
+    }
+    //</editor-fold>
+
+
+    /**
+     * Erzeugt einen neuen {@link LvsColumnStore}, in den alle Änderungen eines {@link LvsChangeSet} übernommen wurden.
+     * Dieser {@link LvsColumnStore} selbst wird dabei nicht verändert.
+     *
+     * @param changeSet Die Änderungen, die übernommen werden sollen.
+     *
+     * @return Ein neuer {@link LvsColumnStore}, in den alle Änderungen übernommen wurden.
+     */
+    @NotNull
+    public LvsColumnStore apply(@NotNull final LvsChangeSet changeSet) {
+        return new LvsColumnStore(this, changeSet);
+    }
+
+    /**
+     * Gibt alle Lehrveranstaltungen zurück, die innerhalb eines bestimmten Zeitraums beginnen. Die Lehrveranstaltungen
+     * sind dabei nach ihrer Startzeit sortiert.
+     *
+     * @param from Der Zeitpunkt, ab dem die Lehrveranstaltungen beginnen (inklusive).
+     * @param to   Der Zeitpunkt, bis zu dem die Lehrveranstaltungen beginnen (inklusive).
+     *
+     * @return Alle Lehrveranstaltungen, die innerhalb des Zeitraums beginnen.
+     */
+    @NotNull
+    public List<LVS> getBetween(
+        @NotNull final LocalDateTime from,
+        @NotNull final LocalDateTime to
+    ) {
+        final List<LVS> lvsList = new ArrayList<>();
+        if (from.isAfter(to)) return lvsList;
+
+        final int end = lowerBound(toEpochMinute(to) + 1);
+        for (int i = lowerBound(toEpochMinute(from)); i < end; i++) {
+            lvsList.add(getView(i));
+        }
+
+        return lvsList;
+    }
+
+    /**
+     * Gibt alle Lehrveranstaltungen von Montag bis Freitag einer bestimmten Woche sortiert nach ihrer Startzeit zurück.
+     * Das zurückgegebene Array wird intern wiederverwendet und darf daher nicht verändert werden.
+     *
+     * @param epochWeek Die Nummer der Woche seit der Epoche (siehe {@link LvsIndex#getEpochWeek(LocalDate)}).
+     *
+     * @return Alle Lehrveranstaltungen von Montag bis Freitag der Woche.
+     */
+    public LVS @NotNull [] getWeek(final long epochWeek) {
+        if (size() == 0) return EMPTY_WEEK;
+
+        if (weeks.length == 0) {
+            this.firstWeek = getEpochWeek(startMinutes[0]);
+            this.weeks = new LVS[(int) (getEpochWeek(startMinutes[size() - 1]) - firstWeek + 1)][];
+        }
+
+        final long index = epochWeek - firstWeek;
+        if (index < 0 || index >= weeks.length) return EMPTY_WEEK;
+
+        final LVS[] cached = weeks[(int) index];
+        if (cached != null) return cached;
+
+        final long monday = LvsIndex.getWeekStart(epochWeek).toEpochDay() * MINUTES_PER_DAY;
+        final long saturday = monday + (long) (DayOfWeek.SATURDAY.getValue() - 1) * MINUTES_PER_DAY;
+
+        final int from = lowerBound(clamp(monday));
+        final int to = lowerBound(clamp(saturday));
+        final LVS[] week = (from == to) ? EMPTY_WEEK : new LVS[to - from];
+
+        for (int i = from; i < to; i++) {
+            week[i - from] = getView(i);
+        }
+
+        weeks[(int) index] = week;
+        return week;
+    }
+
+    /**
+     * Gibt alle Lehrveranstaltungen sortiert nach ihrer Startzeit zurück. Lehrveranstaltungen, die noch nicht einzeln
+     * abgefragt wurden, werden dabei nur vorübergehend erzeugt und nicht in diesem {@link LvsColumnStore} gehalten.
+     *
+     * @return Alle Lehrveranstaltungen sortiert nach ihrer Startzeit.
+     */
+    @NotNull
+    public List<LVS> getAll() {
+        final List<LVS> lvsList = new ArrayList<>(size());
+
+        for (int i = 0; i < size(); i++) {
+            final LVS view = views[i];
+            lvsList.add(view == null ? createView(i) : view);
+        }
+
+        return lvsList;
+    }
+
+    /**
+     * Gibt die Anzahl aller Lehrveranstaltungen zurück.
+     *
+     * @return Die Anzahl aller Lehrveranstaltungen.
+     */
+    @Range(from = 0, to = Integer.MAX_VALUE)
+    public int size() {
+        return startMinutes.length;
+    }
+
+    /**
+     * Gibt die Lehrveranstaltung in einer bestimmten Zeile zurück. Die Lehrveranstaltung wird dabei nur bei der ersten
+     * Abfrage erzeugt, sodass jede Zeile immer durch dieselbe Instanz abgebildet wird.
+     *
+     * @param row Die Zeile der Lehrveranstaltung.
+     *
+     * @return Die Lehrveranstaltung in dieser Zeile.
+     */
+    @NotNull
+    private LVS getView(final int row) {
+        LVS view = views[row];
+        if (view != null) return view;
+
+        view = createView(row);
+        views[row] = view;
+
+        return view;
+    }
+
+    /**
+     * Erzeugt eine neue Instanz der Lehrveranstaltung in einer bestimmten Zeile.
+     *
+     * @param row Die Zeile der Lehrveranstaltung.
+     *
+     * @return Eine neue Instanz der Lehrveranstaltung in dieser Zeile.
+     */
+    @NotNull
+    private LVS createView(final int row) {
+        final LocalDateTime start = toDateTime(startMinutes[row]);
+
+        return new LVS(
+            start,
+            durations[row] == NO_END ? null : start.plusMinutes(durations[row]),
+            dictionary[modules[row]],
+            dictionary[names[row]],
+            dictionary[rooms[row]],
+            dictionary[lecturers[row]],
+            keys[row],
+            contentHashes[row]
+        );
+    }
+
+    /**
+     * Legt eine Lehrveranstaltung spaltenweise in einer bestimmten Zeile ab.
+     *
+     * @param row            Die Zeile, in der die Lehrveranstaltung abgelegt werden soll.
+     * @param lvs            Die Lehrveranstaltung.
+     * @param dictionaryIds  Alle Verweise, wobei jedem Text sein Verweis zugeordnet ist.
+     * @param dictionaryList Das Wörterbuch.
+     */
+    private void set(
+        final int row,
+        @NotNull final LVS lvs,
+        @NotNull final Map<String, Integer> dictionaryIds,
+        @NotNull final List<String> dictionaryList
+    ) {
+        final int start = toEpochMinute(lvs.getStart());
+
+        this.startMinutes[row] = start;
+        this.durations[row] = lvs.getEnd() == null ? NO_END : toEpochMinute(lvs.getEnd()) - start;
+        this.modules[row] = getId(dictionaryIds, dictionaryList, lvs.getModule());
+        this.names[row] = getId(dictionaryIds, dictionaryList, lvs.getName());
+        this.rooms[row] = getId(dictionaryIds, dictionaryList, lvs.getRoom());
+        this.lecturers[row] = getId(dictionaryIds, dictionaryList, lvs.getLecturer());
+        this.keys[row] = lvs.getKey();
+        this.contentHashes[row] = lvs.getContentHash();
+    }
+
+    /**
+     * Gibt die erste Zeile zurück, deren Lehrveranstaltung nicht vor einer bestimmten Minute beginnt.
+     *
+     * @param minute Die Minute seit der Epoche.
+     *
+     * @return Die erste Zeile, deren Lehrveranstaltung nicht vor der Minute beginnt (bzw. die Anzahl aller Zeilen).
+     */
+    @Range(from = 0, to = Integer.MAX_VALUE)
+    private int lowerBound(final int minute) {
+        int low = 0;
+        int high = startMinutes.length;
+
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (startMinutes[middle] < minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Gibt den Verweis auf einen Text im Wörterbuch zurück. Ist der Text noch nicht im Wörterbuch enthalten, wird er
+     * hinzugefügt.
+     *
+     * @param dictionaryIds  Alle Verweise, wobei jedem Text sein Verweis zugeordnet ist.
+     * @param dictionaryList Das Wörterbuch.
+     * @param text           Der Text, dessen Verweis zurückgegeben werden soll.
+     *
+     * @return Der Verweis auf den Text im Wörterbuch.
+     */
+    private static int getId(
+        @NotNull final Map<String, Integer> dictionaryIds,
+        @NotNull final List<String> dictionaryList,
+        @NotNull final String text
+    ) {
+        final Integer existing = dictionaryIds.get(text);
+        if (existing != null) return existing;
+
+        dictionaryList.add(text);
+        dictionaryIds.put(text, dictionaryList.size() - 1);
+
+        return dictionaryList.size() - 1;
+    }
+
+    /**
+     * Wandelt einen Zeitpunkt in die Anzahl an Minuten seit der Epoche um.
+     *
+     * @param dateTime Der Zeitpunkt, der umgewandelt werden soll.
+     *
+     * @return Die Anzahl an Minuten seit der Epoche.
+     */
+    private static int toEpochMinute(@NotNull final LocalDateTime dateTime) {
+        return clamp(Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60));
+    }
+
+    /**
+     * Gibt die Nummer der Woche seit der Epoche zurück, in der eine bestimmte Minute seit der Epoche liegt.
+     *
+     * @param epochMinute Die Anzahl an Minuten seit der Epoche.
+     *
+     * @return Die Nummer der Woche seit der Epoche (siehe {@link LvsIndex#getEpochWeek(LocalDate)}).
+     */
+    private static long getEpochWeek(final int epochMinute) {
+        return LvsIndex.getEpochWeek(LocalDate.ofEpochDay(Math.floorDiv(epochMinute, MINUTES_PER_DAY)));
+    }
+
+    /**
+     * Wandelt eine Anzahl an Minuten seit der Epoche in einen Zeitpunkt um.
+     *
+     * @param epochMinute Die Anzahl an Minuten seit der Epoche.
+     *
+     * @return Der Zeitpunkt.
+     */
+    @NotNull
+    private static LocalDateTime toDateTime(final int epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Begrenzt eine Anzahl an Minuten auf den Wertebereich eines {@code int}.
+     *
+     * @param minute Die Anzahl an Minuten.
+     *
+     * @return Die begrenzte Anzahl an Minuten.
+     */
+    private static int clamp(final long minute) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, minute));
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,396 @@
+package de.gemuesehasser.hspv.object;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Ein {@link LvsIndex} enthält alle Lehrveranstaltungen eines Stundenplans, sortiert nach ihrer Startzeit. Dabei
+ * können beliebig viele Lehrveranstaltungen zur selben Zeit beginnen, ohne sich gegenseitig zu überschreiben. Alle
+ * Lehrveranstaltungen innerhalb eines bestimmten Zeitraums lassen sich in logarithmischer Zeit abfragen. Zusätzlich
+ * werden die Lehrveranstaltungen von Montag bis Freitag nach Wochen gruppiert, sodass die Lehrveranstaltungen einer
+ * Woche mit einem einzigen Zugriff abgefragt werden können. Wird der Index nachträglich verändert, werden nur die
+ * Wochen neu gruppiert, in denen sich tatsächlich etwas verändert hat. Sehr große Stundenpläne lassen sich mithilfe
+ * von {@link #compact()} platzsparend in einem {@link LvsColumnStore} ablegen, ohne dass sich die Abfragen verändern.
+ * Alle öffentlichen Methoden sind synchronisiert, sodass Wochen auch im Hintergrund vorab abgefragt werden können.
+ */
+public final class LvsIndex {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Die (leere) Woche, die für alle Wochen ohne Lehrveranstaltungen zurückgegeben wird. */
+    private static final LVS @NotNull [] EMPTY_WEEK = new LVS[0];
+    /** Die Anzahl an Tagen, um die der Montag einer Woche vor dem Beginn der Epoche (Donnerstag) liegt. */
+    private static final int EPOCH_MONDAY_OFFSET = 3;
+    //</editor-fold>
+
+
+    //<editor-fold desc="LOCAL FIELDS">
+    /** Alle Lehrveranstaltungen, gruppiert nach ihrer Startzeit. */
+    @NotNull
+    private final TreeMap<LocalDateTime, List<LVS>> lvsByStart = new TreeMap<>();
+    /** Die Anzahl aller Lehrveranstaltungen in diesem Index. */
+    @Range(from = 0, to = Integer.MAX_VALUE)
+    private int size;
+    /** Die Lehrveranstaltungen von Montag bis Freitag, gruppiert nach ihrer Woche (ab {@code firstWeek}). */
+    private LVS @NotNull [] @NotNull [] weeks = new LVS[0][];
+    /** Die Nummer der ersten Woche (seit der Epoche), für die Lehrveranstaltungen in {@code weeks} liegen. */
+    private long firstWeek;
+    /** Ob die Gruppierung nach Wochen seit der letzten Änderung dieses Index neu erzeugt werden muss. */
+    private boolean weeksOutdated = true;
+    /** Die Nummern aller einzelnen Wochen, die seit der letzten Änderung dieses Index neu gruppiert werden müssen. */
+    @NotNull
+    private final Set<Long> outdatedWeeks = new HashSet<>();
+    /** Die spaltenweise gespeicherten Lehrveranstaltungen oder {@code null}, wenn dieser Index nicht kompakt ist. */
+    @Nullable
+    private LvsColumnStore columns;
+    //</editor-fold>
+
+
+    /**
+     * Fügt diesem Index eine Lehrveranstaltung hinzu. Lehrveranstaltungen mit derselben Startzeit bleiben in der
+     * Reihenfolge erhalten, in der sie hinzugefügt wurden.
+     *
+     * @param lvs Die Lehrveranstaltung, die hinzugefügt werden soll.
+     */
+    public synchronized void add(@NotNull final LVS lvs) {
+        expand();
+        lvsByStart.computeIfAbsent(lvs.getStart(), start -> new ArrayList<>(1)).add(lvs);
+        size++;
+        markOutdated(lvs);
+    }
+
+    /**
+     * Entfernt eine bestimmte Lehrveranstaltung aus diesem Index. Dabei wird genau diese Instanz entfernt und keine
+     * andere Lehrveranstaltung, welche zur selben Zeit beginnt.
+     *
+     * @param lvs Die Lehrveranstaltung, die entfernt werden soll.
+     *
+     * @return Wenn die Lehrveranstaltung in diesem Index enthalten war {@code true}, ansonsten {@code false}.
+     */
+    public synchronized boolean remove(@NotNull final LVS lvs) {
+        expand();
+        final List<LVS> lvsList = lvsByStart.get(lvs.getStart());
+        if (lvsList == null) return false;
+
+        for (int i = 0; i < lvsList.size(); i++) {
+            if (lvsList.get(i) != lvs) continue;
+
+            lvsList.remove(i);
+            if (lvsList.isEmpty()) lvsByStart.remove(lvs.getStart());
+
+            size--;
+            markOutdated(lvs);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Bereitet das Übernehmen aller Änderungen eines {@link LvsChangeSet} vor, ohne diesen Index zu verändern. Ist
+     * dieser Index kompakt, wird hierbei bereits der neue {@link LvsColumnStore} erzeugt, sodass dieser beim
+     * Übernehmen der Änderungen (siehe {@link #apply(LvsChangeSet, LvsColumnStore)}) nur noch ausgetauscht werden
+     * muss. Diese Methode sollte daher im Hintergrund aufgerufen werden.
+     *
+     * @param changeSet Die Änderungen, die übernommen werden sollen.
+     *
+     * @return Der neue {@link LvsColumnStore} oder {@code null}, wenn dieser Index nicht kompakt ist oder sich nichts
+     *     verändert hat.
+     */
+    @Nullable
+    public synchronized LvsColumnStore prepare(@NotNull final LvsChangeSet changeSet) {
+        if (columns == null || changeSet.isEmpty()) return null;
+
+        return columns.apply(changeSet);
+    }
+
+    /**
+     * Übernimmt alle Änderungen eines {@link LvsChangeSet} in diesen Index, ohne diesen vollständig neu aufzubauen. Ist
+     * dieser Index kompakt, wird er durch den zuvor vorbereiteten {@link LvsColumnStore} ersetzt (siehe
+     * {@link #prepare(LvsChangeSet)}), sodass er auch nach dem Übernehmen der Änderungen kompakt ist.
+     *
+     * @param changeSet Die Änderungen, die übernommen werden sollen.
+     * @param prepared  Der zuvor für diese Änderungen vorbereitete {@link LvsColumnStore} oder {@code null}, wenn er
+     *                  erst hier erzeugt werden soll.
+     */
+    public synchronized void apply(
+        @NotNull final LvsChangeSet changeSet,
+        @Nullable final LvsColumnStore prepared
+    ) {
+        if (changeSet.isEmpty()) return;
+
+        if (columns != null) {
+            this.columns = (prepared == null) ? columns.apply(changeSet) : prepared;
+            return;
+        }
+
+        for (@NotNull final LVS lvs : changeSet.getRemoved()) {
+            remove(lvs);
+        }
+
+        for (@NotNull final Map.Entry<LVS, LVS> entry : changeSet.getMoved().entrySet()) {
+            remove(entry.getKey());
+            add(entry.getValue());
+        }
+
+        for (@NotNull final LVS lvs : changeSet.getAdded()) {
+            add(lvs);
+        }
+    }
+
+    /**
+     * Legt alle Lehrveranstaltungen dieses Index spaltenweise in einem {@link LvsColumnStore} ab, wodurch der Index
+     * deutlich weniger Speicher benötigt. Alle Abfragen bleiben dabei unverändert. Wird der Index anschließend
+     * verändert, werden die Lehrveranstaltungen vorher wieder einzeln abgelegt.
+     */
+    public synchronized void compact() {
+        if (isCompact()) return;
+
+        this.columns = new LvsColumnStore(getAll());
+        lvsByStart.clear();
+        this.weeks = new LVS[0][];
+        this.weeksOutdated = true;
+        outdatedWeeks.clear();
+    }
+
+    /**
+     * Prüft, ob die Lehrveranstaltungen dieses Index aktuell spaltenweise in einem {@link LvsColumnStore} abgelegt
+     * sind.
+     *
+     * @return Wenn dieser Index kompakt ist {@code true}, ansonsten {@code false}.
+     */
+    public synchronized boolean isCompact() {
+        return columns != null;
+    }
+
+    /**
+     * Fügt diesem Index mehrere Lehrveranstaltungen hinzu.
+     *
+     * @param lvs Die Lehrveranstaltungen, die hinzugefügt werden sollen.
+     */
+    public synchronized void addAll(@NotNull final Collection<LVS> lvs) {
+        for (@NotNull final LVS entry : lvs) {
+            add(entry);
+        }
+
+        buildWeeks();
+    }
+
+    /**
+     * Gibt alle Lehrveranstaltungen zurück, die innerhalb eines bestimmten Zeitraums beginnen. Die Lehrveranstaltungen
+     * sind dabei nach ihrer Startzeit sortiert.
+     *
+     * @param from Der Zeitpunkt, ab dem die Lehrveranstaltungen beginnen (inklusive).
+     * @param to   Der Zeitpunkt, bis zu dem die Lehrveranstaltungen beginnen (inklusive).
+     *
+     * @return Alle Lehrveranstaltungen, die innerhalb des Zeitraums beginnen.
+     */
+    @NotNull
+    public synchronized List<LVS> getBetween(
+        @NotNull final LocalDateTime from,
+        @NotNull final LocalDateTime to
+    ) {
+        if (columns != null) return columns.getBetween(from, to);
+
+        final List<LVS> lvsList = new ArrayList<>();
+        if (from.isAfter(to)) return lvsList;
+
+        for (@NotNull final List<LVS> lvs : lvsByStart.subMap(from, true, to, true).values()) {
+            lvsList.addAll(lvs);
+        }
+
+        return lvsList;
+    }
+
+    /**
+     * Gibt alle Lehrveranstaltungen von Montag bis Freitag einer bestimmten Woche sortiert nach ihrer Startzeit zurück.
+     * Das zurückgegebene Array wird intern wiederverwendet und darf daher nicht verändert werden.
+     *
+     * @param epochWeek Die Nummer der Woche seit der Epoche (siehe {@link #getEpochWeek(LocalDate)}).
+     *
+     * @return Alle Lehrveranstaltungen von Montag bis Freitag der Woche.
+     */
+    public synchronized LVS @NotNull [] getWeek(final long epochWeek) {
+        if (columns != null) return columns.getWeek(epochWeek);
+
+        if (weeksOutdated) {
+            buildWeeks();
+        } else if (!outdatedWeeks.isEmpty()) {
+            for (final long week : outdatedWeeks) {
+                buildWeek(week);
+            }
+
+            outdatedWeeks.clear();
+        }
+
+        final long index = epochWeek - firstWeek;
+        if (index < 0 || index >= weeks.length) return EMPTY_WEEK;
+
+        return weeks[(int) index];
+    }
+
+    /**
+     * Gibt alle Lehrveranstaltungen dieses Index sortiert nach ihrer Startzeit zurück.
+     *
+     * @return Alle Lehrveranstaltungen dieses Index sortiert nach ihrer Startzeit.
+     */
+    @NotNull
+    public synchronized List<LVS> getAll() {
+        if (columns != null) return columns.getAll();
+
+        final List<LVS> lvsList = new ArrayList<>(size);
+
+        for (@NotNull final List<LVS> lvs : lvsByStart.values()) {
+            lvsList.addAll(lvs);
+        }
+
+        return lvsList;
+    }
+
+    /**
+     * Gibt die Anzahl aller Lehrveranstaltungen in diesem Index zurück.
+     *
+     * @return Die Anzahl aller Lehrveranstaltungen in diesem Index.
+     */
+    @Range(from = 0, to = Integer.MAX_VALUE)
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Legt alle Lehrveranstaltungen eines kompakten Index wieder einzeln ab, sodass der Index verändert werden kann.
+     * Dabei werden dieselben Instanzen genutzt, die bereits zuvor als Woche aus dem {@link LvsColumnStore} abgefragt
+     * wurden.
+     */
+    private void expand() {
+        final LvsColumnStore compacted = this.columns;
+        if (compacted == null) return;
+
+        this.columns = null;
+        for (@NotNull final LVS lvs : compacted.getAll()) {
+            lvsByStart.computeIfAbsent(lvs.getStart(), start -> new ArrayList<>(1)).add(lvs);
+        }
+
+        this.weeksOutdated = true;
+    }
+
+    /**
+     * Gruppiert alle Lehrveranstaltungen von Montag bis Freitag nach der Woche, in der sie beginnen.
+     */
+    private void buildWeeks() {
+        weeksOutdated = false;
+        outdatedWeeks.clear();
+
+        if (lvsByStart.isEmpty()) {
+            this.weeks = new LVS[0][];
+            return;
+        }
+
+        this.firstWeek = getEpochWeek(lvsByStart.firstKey().toLocalDate());
+        final long lastWeek = getEpochWeek(lvsByStart.lastKey().toLocalDate());
+        final int[] weekSizes = new int[(int) (lastWeek - firstWeek + 1)];
+
+        for (@NotNull final List<LVS> lvs : lvsByStart.values()) {
+            final LocalDate date = lvs.get(0).getStart().toLocalDate();
+            if (date.getDayOfWeek().getValue() > DayOfWeek.FRIDAY.getValue()) continue;
+
+            weekSizes[(int) (getEpochWeek(date) - firstWeek)] += lvs.size();
+        }
+
+        final LVS[][] newWeeks = new LVS[weekSizes.length][];
+        for (int i = 0; i < weekSizes.length; i++) {
+            newWeeks[i] = weekSizes[i] == 0 ? EMPTY_WEEK : new LVS[weekSizes[i]];
+            weekSizes[i] = 0;
+        }
+
+        for (@NotNull final List<LVS> lvs : lvsByStart.values()) {
+            final LocalDate date = lvs.get(0).getStart().toLocalDate();
+            if (date.getDayOfWeek().getValue() > DayOfWeek.FRIDAY.getValue()) continue;
+
+            final int week = (int) (getEpochWeek(date) - firstWeek);
+            for (@NotNull final LVS entry : lvs) {
+                newWeeks[week][weekSizes[week]++] = entry;
+            }
+        }
+
+        this.weeks = newWeeks;
+    }
+
+    /**
+     * Gruppiert alle Lehrveranstaltungen von Montag bis Freitag einer einzelnen Woche neu, welche bereits innerhalb
+     * der aktuellen Gruppierung liegt.
+     *
+     * @param epochWeek Die Nummer der Woche seit der Epoche.
+     */
+    private void buildWeek(final long epochWeek) {
+        final LocalDate monday = getWeekStart(epochWeek);
+        final List<LVS> lvsList = new ArrayList<>();
+
+        for (@NotNull final List<LVS> lvs : lvsByStart.subMap(
+            monday.atStartOfDay(),
+            true,
+            monday.plusDays(DayOfWeek.SATURDAY.getValue() - 1).atStartOfDay(),
+            false
+        ).values()) {
+            lvsList.addAll(lvs);
+        }
+
+        weeks[(int) (epochWeek - firstWeek)] = lvsList.isEmpty() ? EMPTY_WEEK : lvsList.toArray(new LVS[0]);
+    }
+
+    /**
+     * Markiert die Woche, in der eine veränderte Lehrveranstaltung beginnt, als veraltet. Liegt diese Woche außerhalb
+     * der aktuellen Gruppierung, muss die gesamte Gruppierung neu erzeugt werden.
+     *
+     * @param lvs Die Lehrveranstaltung, die hinzugefügt oder entfernt wurde.
+     */
+    private void markOutdated(@NotNull final LVS lvs) {
+        if (weeksOutdated) return;
+
+        final long week = getEpochWeek(lvs.getStart().toLocalDate());
+        if (week < firstWeek || week >= firstWeek + weeks.length) {
+            weeksOutdated = true;
+            return;
+        }
+
+        outdatedWeeks.add(week);
+    }
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Gibt die Nummer der Woche (beginnend mit Montag) seit der Epoche zurück, in der ein bestimmtes Datum liegt.
+     *
+     * @param date Das Datum, für das die Nummer der Woche ermittelt werden soll.
+     *
+     * @return Die Nummer der Woche seit der Epoche, in der das Datum liegt.
+     */
+    public static long getEpochWeek(@NotNull final LocalDate date) {
+        return Math.floorDiv(date.toEpochDay() + EPOCH_MONDAY_OFFSET, 7);
+    }
+
+    /**
+     * Gibt den Montag einer bestimmten Woche seit der Epoche zurück.
+     *
+     * @param epochWeek Die Nummer der Woche seit der Epoche.
+     *
+     * @return Der Montag der Woche.
+     */
+    @NotNull
+    public static LocalDate getWeekStart(final long epochWeek) {
+        return LocalDate.ofEpochDay(epochWeek * 7 - EPOCH_MONDAY_OFFSET);
+    }
+    //</editor-fold>
+
+}
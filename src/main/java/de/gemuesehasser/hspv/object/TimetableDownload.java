@@ -0,0 +1,57 @@
+package de.gemuesehasser.hspv.object;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+
+/**
+ * Ein {@link TimetableDownload} beschreibt das Ergebnis eines Downloads des Stundenplans. Der Inhalt des Stundenplans
+ * liegt dabei (sofern der Server ihn übertragen hat) bereits UTF-8 kodiert in einer temporären Datei, deren Hash-Wert
+ * während des Downloads berechnet wurde.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class TimetableDownload {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Der HTTP-Status, mit dem der Server antwortet, wenn sich der Stundenplan seit dem letzten Download nicht verändert hat. */
+    private static final int NOT_MODIFIED = 304;
+    //</editor-fold>
+
+
+    //<editor-fold desc="LOCAL FIELDS">
+    /** Der HTTP-Status, mit dem der Server geantwortet hat. */
+    private final int statusCode;
+    /** Die temporäre Datei, in welcher der übertragene Inhalt liegt, oder {@code null}, wenn nichts übertragen wurde. */
+    @Nullable
+    private final File file;
+    /** Der Hash-Wert (SHA-256) des übertragenen Inhalts oder {@code null}, wenn nichts übertragen wurde. */
+    private final byte @Nullable [] digest;
+    /** Der ETag, den der Server mitgesendet hat. */
+    @Nullable
+    private final String etag;
+    /** Das Änderungsdatum (Last-Modified), welches der Server mitgesendet hat. */
+    @Nullable
+    private final String lastModified;
+    //</editor-fold>
+
+
+    /**
+     * Prüft, ob der Server geantwortet hat, dass sich der Stundenplan seit dem letzten Download nicht verändert hat.
+     *
+     * @return Wenn sich der Stundenplan laut Server nicht verändert hat {@code true}, ansonsten {@code false}.
+     */
+    public boolean isNotModified() {
+        return statusCode == NOT_MODIFIED;
+    }
+
+    /**
+     * Löscht die temporäre Datei dieses Downloads, sofern diese noch existiert.
+     */
+    public void discard() {
+        if (file != null && file.exists() && !file.delete()) file.deleteOnExit();
+    }
+
+}
@@ -0,0 +1,105 @@
+package de.gemuesehasser.hspv.object;
+
+import de.gemuesehasser.hspv.constant.PropertyType;
+import de.gemuesehasser.hspv.handler.PaletteHandler;
+import de.gemuesehasser.hspv.handler.UserHandler;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.Color;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Die {@link UserSettings} enthalten alle Individualisierungen eines Nutzers (aktuell die Farben seiner
+ * Lehrveranstaltungen). Diese werden beim Login einmalig aus der Konfigurationsdatei geladen und anschließend nur noch
+ * im Speicher gelesen, sodass beim Anzeigen einer Woche weder Texte zusammengesetzt noch Zahlen eingelesen werden
+ * müssen. Jede Lehrveranstaltung teilt sich dabei eine einzige Instanz ihrer {@link Color Farbe}. Hat der Nutzer für
+ * eine Lehrveranstaltung keine eigene Farbe festgelegt, wird die Standardfarbe ihres Moduls genutzt (siehe
+ * {@link PaletteHandler}), ohne diese zu speichern.
+ */
+@RequiredArgsConstructor
+public final class UserSettings {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Der Pfad, unter dem die Farbe einer Lehrveranstaltung in der Konfigurationsdatei gespeichert wird. */
+    @NotNull
+    private static final String COLOR_PATH = "color.";
+    //</editor-fold>
+
+
+    //<editor-fold desc="LOCAL FIELDS">
+    /** Der Benutzername des Nutzers, zu dem diese Individualisierungen gehören. */
+    @Getter
+    @NotNull
+    private final String username;
+    /** Alle gespeicherten Farben, wobei jeder Lehrveranstaltung (anhand ihres Namens) ihre Farbe zugeordnet ist. */
+    @NotNull
+    private final Map<String, Color> colors;
+    //</editor-fold>
+
+
+    /**
+     * Gibt die Farbe einer bestimmten Lehrveranstaltung zurück. Hat der Nutzer keine eigene Farbe für diese
+     * Lehrveranstaltung festgelegt, wird die Standardfarbe ihres Moduls zurückgegeben.
+     *
+     * @param lvs Die Lehrveranstaltung, deren Farbe zurückgegeben werden soll.
+     *
+     * @return Die Farbe der Lehrveranstaltung.
+     */
+    @NotNull
+    public Color getColor(@NotNull final LVS lvs) {
+        final Color color = colors.get(lvs.getName());
+        if (color != null) return color;
+
+        return PaletteHandler.getColor(lvs.getModule().isEmpty() ? lvs.getName() : lvs.getModule());
+    }
+
+    /**
+     * Setzt die Farbe einer bestimmten Lehrveranstaltung. Die Farbe wird sofort im Speicher übernommen und im
+     * Hintergrund in der Konfigurationsdatei gespeichert.
+     *
+     * @param lvsName Der Name der Lehrveranstaltung.
+     * @param color   Die neue Farbe der Lehrveranstaltung.
+     */
+    public void setColor(
+        @NotNull final String lvsName,
+        @NotNull final Color color
+    ) {
+        final Color current = colors.get(lvsName);
+        if (current != null && current.getRGB() == color.getRGB()) return;
+
+        colors.put(lvsName, new Color(color.getRGB()));
+        UserHandler.saveConfiguration(username, COLOR_PATH + lvsName, String.valueOf(color.getRGB()));
+    }
+
+    /**
+     * Lädt alle Individualisierungen eines bestimmten Nutzers aus der Konfigurationsdatei. Die Konfigurationsdatei
+     * wird dabei nur ein einziges Mal durchlaufen.
+     *
+     * @param username Der Benutzername des Nutzers, dessen Individualisierungen geladen werden sollen.
+     *
+     * @return Alle Individualisierungen des Nutzers.
+     */
+    @NotNull
+    public static UserSettings load(@NotNull final String username) {
+        final Properties configurations = PropertyType.CONFIG_FILE.getProperties();
+        final String prefix = UserHandler.getConfigurationKey(username, COLOR_PATH);
+        final Map<String, Color> colors = new HashMap<>();
+
+        for (@NotNull final String key : configurations.stringPropertyNames()) {
+            if (!key.startsWith(prefix)) continue;
+
+            try {
+                colors.put(key.substring(prefix.length()), new Color(Integer.parseInt(configurations.getProperty(key))));
+            } catch (@NotNull final NumberFormatException ignored) {
+                // invalid colors are replaced by the default color of the lecture
+            }
+        }
+
+        return new UserSettings(username, colors);
+    }
+
+}
@@ -0,0 +1,116 @@
+package de.gemuesehasser.hspv.object;
+
+import de.gemuesehasser.hspv.handler.LayoutHandler;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.Rectangle;
+import java.awt.geom.RoundRectangle2D;
+
+/**
+ * Ein {@link WeekLayout} enthält die Position und Größe der Blöcke aller Lehrveranstaltungen einer Woche, so wie sie
+ * durch den {@link LayoutHandler} berechnet wurden. Die Blöcke sind dabei nach ihrem Wochentag gruppiert, sodass sich
+ * der Block an einer bestimmten Position ermitteln lässt, ohne alle Blöcke der Woche zu durchsuchen.
+ */
+@RequiredArgsConstructor
+public final class WeekLayout {
+
+    //<editor-fold desc="LOCAL FIELDS">
+    /** Die Lehrveranstaltungen, auf deren Grundlage dieses Layout berechnet wurde. */
+    @Getter
+    private final LVS @NotNull [] lvs;
+    /** Alle Blöcke dieser Woche, gruppiert nach ihrem Wochentag. */
+    private final Block @NotNull [] @NotNull [] blocksByDay;
+    //</editor-fold>
+
+
+    /**
+     * Gibt alle Blöcke eines bestimmten Wochentags zurück.
+     *
+     * @param day Der Index des Wochentags (0 für Montag).
+     *
+     * @return Alle Blöcke des Wochentags.
+     */
+    public Block @NotNull [] getBlocks(final int day) {
+        return blocksByDay[day];
+    }
+
+    /**
+     * Gibt den Block zurück, der sich an einer bestimmten Position befindet. Dabei werden nur die Blöcke des Wochentags
+     * durchsucht, in dessen Spalte die Position liegt.
+     *
+     * @param x Die x-Koordinate der Position.
+     * @param y Die y-Koordinate der Position.
+     *
+     * @return Der Block an der Position oder {@code null}, wenn sich dort kein Block befindet.
+     */
+    @Nullable
+    public Block getBlockAt(
+        final int x,
+        final int y
+    ) {
+        if (x < LayoutHandler.DAYS_BEGIN_X) return null;
+
+        final int day = (x - LayoutHandler.DAYS_BEGIN_X) / LayoutHandler.DAY_WIDTH;
+        if (day >= blocksByDay.length) return null;
+
+        for (@NotNull final Block block : blocksByDay[day]) {
+            if (block.getShape().contains(x, y)) return block;
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Ein {@link Block} bildet eine einzelne Lehrveranstaltung innerhalb eines {@link WeekLayout} ab.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Block {
+
+        //<editor-fold desc="LOCAL FIELDS">
+        /** Die Lehrveranstaltung, die durch diesen Block abgebildet wird. */
+        @NotNull
+        private final LVS lvs;
+        /** Die Position und Größe dieses Blocks. */
+        @NotNull
+        private final Rectangle bounds;
+        /** Die Form dieses Blocks mit abgerundeten Ecken. */
+        @NotNull
+        private final RoundRectangle2D shape;
+        //</editor-fold>
+
+
+        //<editor-fold desc="CONSTRUCTORS">
+
+        /**
+         * Erzeugt einen neuen {@link Block} für eine bestimmte Lehrveranstaltung an einer bestimmten Position.
+         *
+         * @param lvs    Die Lehrveranstaltung, die durch diesen Block abgebildet wird.
+         * @param bounds Die Position und Größe dieses Blocks.
+         */
+        public Block(
+            @NotNull final LVS lvs,
+            @NotNull final Rectangle bounds
+        ) {
+            this(
+                lvs,
+                bounds,
+                new RoundRectangle2D.Double(
+                    bounds.x,
+                    bounds.y,
+                    bounds.width - 1,
+                    bounds.height - 1,
+                    LayoutHandler.BLOCK_ROUNDING,
+                    LayoutHandler.BLOCK_ROUNDING
+                )
+            );
+        }
+        //</editor-fold>
+
+    }
+
+}
@@ -5,33 +5,41 @@ import de.gemuesehasser.hspv.object.Gui;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Range;
 
+import javax.swing.Timer;
+
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 /**
- * Auf diesem undekorierten Fenster wird ein einfacher Ladebildschirm dargestellt.
+ * Auf diesem undekorierten Fenster wird ein einfacher Ladebildschirm dargestellt. Alle Einzelbilder der gedrehten
+ * Lade-Grafik werden einmalig vorab erzeugt, sodass während der Animation lediglich das jeweils aktuelle Einzelbild
+ * gezeichnet wird.
  */
-public final class LoadingGui extends Gui implements Runnable {
+public final class LoadingGui extends Gui {
 
     //<editor-fold desc="CONSTANTS">
     /** Die Breite dieses Ladebildschirms. */
     private static final int WIDTH = 80;
     /** Die Höhe dieses Ladebildschirms. */
     private static final int HEIGHT = 80;
+    /** Die Gradzahl, um die die Lade-Grafik von einem Einzelbild zum nächsten gedreht wird. */
+    private static final int ANGLE_STEP = 2;
+    /** Die Anzahl an Millisekunden, die zwischen zwei Einzelbildern der Animation vergehen. */
+    private static final int FRAME_DELAY = 20;
+    /** Alle Einzelbilder der Animation, wobei die Lade-Grafik in jedem Einzelbild etwas weiter gedreht ist. */
+    private static final BufferedImage @NotNull [] FRAMES = createFrames();
     //</editor-fold>
 
 
     //<editor-fold desc="LOCAL FIELDS">
-    /** Der Scheduler, welcher dafür zuständig ist, den Ladebildschirm konstant zu aktualisieren. */
+    /** Der {@link Timer}, welcher dafür zuständig ist, den Ladebildschirm konstant zu aktualisieren. */
     @NotNull
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-    /** Die aktuelle Gradzahl, um die die Lade-Grafik gedreht ist. */
-    @Range(from = 0, to = 360)
-    private double angle = 0;
+    private final Timer timer = new Timer(FRAME_DELAY, e -> nextFrame());
+    /** Der Index des aktuell angezeigten Einzelbildes. */
+    @Range(from = 0, to = Integer.MAX_VALUE)
+    private int frame = 0;
     //</editor-fold>
 
 
@@ -50,60 +58,69 @@ public final class LoadingGui extends Gui implements Runnable {
 
 
     /**
-     * Gibt die um eine bestimmte Gradzahl gedrehte Lade-Grafik in Form eines formatierten Bildes zurück.
-     *
-     * @param angle Die Gradzahl, um die die Lade-Grafik gedreht werden soll.
+     * Wechselt zum nächsten Einzelbild der Animation und zeichnet dieses.
+     */
+    private void nextFrame() {
+        frame = (frame + 1) % FRAMES.length;
+
+        super.getDraw().repaint();
+    }
+
+    /**
+     * Erzeugt alle Einzelbilder der Animation. Dabei wird die Lade-Grafik für jedes Einzelbild um {@value ANGLE_STEP}
+     * Grad weiter gedreht und direkt auf die Größe dieses Ladebildschirms skaliert. Konnte die Lade-Grafik nicht geladen
+     * werden, besteht die Animation aus einem einzigen leeren Einzelbild.
      *
-     * @return Die um eine bestimmte Gradzahl gedrehte Lade-Grafik in Form eines formatierten Bildes.
+     * @return Alle Einzelbilder der Animation.
      */
-    @NotNull
-    private BufferedImage getRotatedImage(@Range(from = 0, to = 360) final Double angle) {
+    private static BufferedImage @NotNull [] createFrames() {
         final BufferedImage loadingImage = ImageType.LOADING_IMAGE.getImage();
+        if (loadingImage == null) return new BufferedImage[] {new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE)};
 
-        final double sin = Math.abs(Math.sin(Math.toRadians(angle)));
-        final double cos = Math.abs(Math.cos(Math.toRadians(angle)));
         final int w = loadingImage.getWidth();
         final int h = loadingImage.getHeight();
-        final int neww = (int) Math.floor(w * cos + h * sin);
-        final int newh = (int) Math.floor(h * cos + w * sin);
-
-        final BufferedImage rotated = new BufferedImage(neww, newh, loadingImage.getType());
-        final Graphics2D graphic = rotated.createGraphics();
-        graphic.translate((neww - w) / 2, (newh - h) / 2);
-        graphic.rotate(Math.toRadians(angle), (double) w / 2, (double) h / 2);
-        graphic.drawRenderedImage(loadingImage, null);
-        graphic.dispose();
-        return rotated;
+        final BufferedImage[] frames = new BufferedImage[360 / ANGLE_STEP];
+
+        for (int i = 0; i < frames.length; i++) {
+            final double angle = Math.toRadians(i * ANGLE_STEP);
+            final double sin = Math.abs(Math.sin(angle));
+            final double cos = Math.abs(Math.cos(angle));
+            final int neww = (int) Math.floor(w * cos + h * sin);
+            final int newh = (int) Math.floor(h * cos + w * sin);
+
+            frames[i] = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+
+            final Graphics2D graphic = frames[i].createGraphics();
+            graphic.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphic.scale((double) WIDTH / neww, (double) HEIGHT / newh);
+            graphic.translate((neww - w) / 2, (newh - h) / 2);
+            graphic.rotate(angle, (double) w / 2, (double) h / 2);
+            graphic.drawImage(loadingImage, 0, 0, null);
+            graphic.dispose();
+        }
+
+        return frames;
     }
 
     //<editor-fold desc="implementation">
 
     @Override
     public void draw(@NotNull final Graphics2D g) {
-        g.drawImage(getRotatedImage(angle), 0, 0, WIDTH, HEIGHT, null);
-
-        repaint();
-    }
-
-    @Override
-    public void run() {
-        if (angle >= 360) angle = 0;
-
-        angle += 2;
+        g.drawImage(FRAMES[frame], 0, 0, null);
     }
 
     @Override
     public void open() {
         super.open();
 
-        scheduler.scheduleAtFixedRate(this, 0, 20, TimeUnit.MILLISECONDS);
+        timer.start();
     }
 
     @Override
     public void dispose() {
         super.dispose();
 
-        scheduler.shutdownNow();
+        timer.stop();
     }
     //</editor-fold>
 }
@@ -3,20 +3,26 @@ package de.gemuesehasser.hspv.object.gui;
 import de.gemuesehasser.hspv.Timetable;
 import de.gemuesehasser.hspv.constant.ImageType;
 import de.gemuesehasser.hspv.constant.PropertyType;
+import de.gemuesehasser.hspv.handler.ConnectionHandler;
 import de.gemuesehasser.hspv.handler.ICalHandler;
 import de.gemuesehasser.hspv.handler.PasswordHandler;
-import de.gemuesehasser.hspv.handler.UserHandler;
+import de.gemuesehasser.hspv.handler.WarmupHandler;
 import de.gemuesehasser.hspv.object.Gui;
+import de.gemuesehasser.hspv.object.LvsChangeSet;
+import de.gemuesehasser.hspv.object.LvsColumnStore;
+import de.gemuesehasser.hspv.object.LvsIndex;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.JButton;
 import javax.swing.JOptionPane;
 import javax.swing.JPasswordField;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 
 import java.awt.Graphics2D;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
@@ -69,6 +75,7 @@ public final class LoginGui extends Gui implements KeyListener {
      * {@link LoginGui} bietet dem Nutzer eine grafische Oberfläche, auf der dieser seinen Benutzernamen und sein
      * Passwort eingeben kann. Von dem diesem Fenster aus wird dann beim Abschicken der Benutzerdaten das
      * {@link LoadingGui} geöffnet und sobald die nötige Datei geladen wurde, wird das {@link TimetableGui} geöffnet.
+     * Während der Nutzer seine Benutzerdaten eingibt, wird der Login bereits im Hintergrund vorbereitet.
      *
      * @param error Der Zustand, ob zuvor bereits ein fehlerhafter Login vorgelegen hat.
      */
@@ -76,6 +83,8 @@ public final class LoginGui extends Gui implements KeyListener {
         super((error ? "Fehlerhafter Login" : TITLE), WIDTH, HEIGHT);
         super.addKeyListener(this);
 
+        WarmupHandler.start();
+
         usernameField.setBounds(WIDTH / 2 - TEXT_FIELD_WIDTH / 2, 200, TEXT_FIELD_WIDTH, TEXT_FIELD_HEIGHT);
         usernameField.addKeyListener(this);
         usernameField.setText(PropertyType.DATA_FILE.getProperties().getProperty(LAST_LOGIN_PROPERTY));
@@ -128,13 +137,12 @@ public final class LoginGui extends Gui implements KeyListener {
         final String username = usernameField.getText().replaceAll("\\s", "");
         final String passwordText = passwordBuilder.toString();
 
+        // the stored password is verified in the background while the timetable is loaded
+        final CompletableFuture<Boolean> passwordCheck = PasswordHandler.validatePasswordAsync(username, passwordText);
+
         final ICalHandler iCalHandler = new ICalHandler(username, passwordText);
         final int icalReturnCode = iCalHandler.loadICalFile();
 
-        if (icalReturnCode == ICalHandler.NEW_USER_LOGIN) {
-            PasswordHandler.saveHashedPassword(username, passwordText);
-        }
-
         if (icalReturnCode == ICalHandler.WRONG_LOGIN) {
             loadingGui.dispose();
             wrongLoginData();
@@ -143,32 +151,65 @@ public final class LoginGui extends Gui implements KeyListener {
 
         if (icalReturnCode == ICalHandler.NO_CONNECTION_ERROR) {
             loadingGui.dispose();
-            if (!noInternetConnection(username, passwordText)) return;
+            noInternetConnection();
+            return;
         }
 
-        if (!PasswordHandler.validatePassword(username, passwordText)) {
+        final LvsIndex lvsIndex = iCalHandler.getLvs();
+
+        // a new user has already been verified by the online login
+        if (icalReturnCode != ICalHandler.NEW_USER_LOGIN && !passwordCheck.join()) {
             loadingGui.dispose();
             wrongLoginData();
             return;
         }
 
+        // the hash of a new user has already been stored together with the timetable, others are only upgraded
+        if (icalReturnCode != ICalHandler.NEW_USER_LOGIN) PasswordHandler.rehashIfNeededAsync(username, passwordText);
+
         // set timetable
-        Timetable.setLvsMap(iCalHandler.getLvs());
+        Timetable.setLvsIndex(lvsIndex);
 
         final TimetableGui timetableGui = new TimetableGui(username, loadingGui);
         timetableGui.open();
 
-        // save password
-        PasswordHandler.saveHashedPassword(username, passwordText);
-
         if (icalReturnCode == ICalHandler.LOCAL_CALENDAR_BUILT) {
             timetableGui.setTitle(timetableGui.getTitle() + " lokal");
 
-            if (!iCalHandler.loadAntragoTimetable()) System.exit(0);
-            Timetable.setLvsMap(iCalHandler.getLvs());
-
-            timetableGui.loadWeek(0);
-            timetableGui.setTitle(timetableGui.getTitle().replaceAll("lokal", "aktualisiert"));
+            // the result of the warm-up is reused here, so an offline start never waits for the connection check
+            if (!ConnectionHandler.isConnectionPresent()) {
+                localTimetableOnly();
+                return;
+            }
+
+            if (!iCalHandler.loadAntragoTimetable()) {
+                if (iCalHandler.isLoginRejected()) System.exit(0);
+
+                // the local timetable stays in use if the download itself failed
+                return;
+            }
+            if (!iCalHandler.isTimetableChanged()) {
+                SwingUtilities.invokeLater(() -> timetableGui.setTitle(timetableGui.getTitle().replaceAll("lokal", "aktualisiert")));
+                return;
+            }
+
+            final LvsChangeSet changeSet = iCalHandler.getChanges(lvsIndex);
+            if (changeSet.isEmpty()) {
+                SwingUtilities.invokeLater(() -> timetableGui.setTitle(timetableGui.getTitle().replaceAll("lokal", "aktualisiert")));
+                return;
+            }
+
+            // a compact index is rebuilt here, so the event dispatch thread only has to swap it
+            final LvsColumnStore prepared = lvsIndex.prepare(changeSet);
+
+            SwingUtilities.invokeLater(() -> {
+                lvsIndex.apply(changeSet, prepared);
+                timetableGui.reloadWeeks(changeSet.getAffectedWeeks());
+                timetableGui.setTitle(timetableGui.getTitle().replaceAll(
+                    "lokal",
+                    "aktualisiert (" + changeSet.size() + " Lehrveranstaltungen geändert)"
+                ));
+            });
         }
     }
 
@@ -187,35 +228,25 @@ public final class LoginGui extends Gui implements KeyListener {
     }
 
     /**
-     * Die ausgelagerte Aktion, die ausgeführt wird, wenn keine Internetverbindung hergestellt werden kann.
-     *
-     * @param username     Der Benutzername des Nutzers.
-     * @param passwordText Das Passwort des Nutzers.
-     *
-     * @return Wenn die Methode frühzeitig abgebrochen wurde {@code false} und bei vollständiger Ausführung
-     *     {@code true}.
+     * Die ausgelagerte Aktion, die ausgeführt wird, wenn für einen neuen Nutzer keine Internetverbindung hergestellt
+     * werden kann.
      */
-    private boolean noInternetConnection(
-        @NotNull final String username,
-        @NotNull final String passwordText
-    ) {
-        if (!UserHandler.exists(username)) {
-            new LoginGui(true).open();
-
-            JOptionPane.showMessageDialog(
-                null,
-                "Es konnte keine Verbindung hergestellt werden.",
-                "Login fehlgeschlagen",
-                JOptionPane.ERROR_MESSAGE
-            );
-            return false;
-        }
+    private void noInternetConnection() {
+        new LoginGui(true).open();
 
-        if (!PasswordHandler.validatePassword(username, passwordText)) {
-            wrongLoginData();
-            return false;
-        }
+        JOptionPane.showMessageDialog(
+            null,
+            "Es konnte keine Verbindung hergestellt werden.",
+            "Login fehlgeschlagen",
+            JOptionPane.ERROR_MESSAGE
+        );
+    }
 
+    /**
+     * Die ausgelagerte Aktion, die ausgeführt wird, wenn für einen bestehenden Nutzer keine Internetverbindung
+     * hergestellt werden kann und daher nur der bereits angezeigte lokale Stundenplan genutzt wird.
+     */
+    private void localTimetableOnly() {
         JOptionPane.showMessageDialog(
             null,
             "<html>Es konnte keine Verbindung hergestellt werden. <br>" +
@@ -223,8 +254,6 @@ public final class LoginGui extends Gui implements KeyListener {
             "Keine Verbindung zum Server",
             JOptionPane.ERROR_MESSAGE
         );
-
-        return true;
     }
 
     //<editor-fold desc="implementation">
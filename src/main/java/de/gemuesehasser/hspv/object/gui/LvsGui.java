@@ -3,7 +3,6 @@ package de.gemuesehasser.hspv.object.gui;
 import com.bric.colorpicker.ColorPicker;
 import de.gemuesehasser.hspv.Timetable;
 import de.gemuesehasser.hspv.constant.ImageType;
-import de.gemuesehasser.hspv.handler.UserHandler;
 import de.gemuesehasser.hspv.object.Gui;
 import de.gemuesehasser.hspv.object.LVS;
 import org.jetbrains.annotations.NotNull;
@@ -47,9 +46,6 @@ public final class LvsGui extends Gui implements MouseListener {
     /** Die jeweilige Lehrveranstaltung, auf dessen Grundlage dieses Fenster erzeugt werden soll. */
     @NotNull
     private final LVS lvs;
-    /** Der Benutzername des aktuell angemeldeten Nutzers, für den der Stundenplan geladen wurde. */
-    @NotNull
-    private final String username;
     /** Der Name des jeweiligen Dozenten. */
     @NotNull
     private final String docentName;
@@ -58,10 +54,10 @@ public final class LvsGui extends Gui implements MouseListener {
     private final String room;
     /** Der jeweilige Name der Lehrveranstaltung. */
     @NotNull
-    private String lvsName = "name";
+    private final String lvsName;
     /** Die jeweilige Modulbezeichnung der Lehrveranstaltung. */
     @NotNull
-    private String module = "module";
+    private final String module;
     //</editor-fold>
 
 
@@ -75,13 +71,10 @@ public final class LvsGui extends Gui implements MouseListener {
      * @param timetableGui Das {@link TimetableGui Fenster}, in welchem die LVS-Buttons platziert wurden, für die dieses
      *                     {@link LvsGui} instanziiert werden soll.
      * @param lvs          Die jeweilige Lehrveranstaltung, auf dessen Grundlage dieses Fenster erzeugt werden soll.
-     * @param username     Der Benutzername des Nutzers, der aktuell angemeldet ist und für den der Stundenplan aktuell
-     *                     geladen wurde.
      */
     public LvsGui(
         @NotNull final TimetableGui timetableGui,
-        @NotNull final LVS lvs,
-        @NotNull final String username
+        @NotNull final LVS lvs
     ) {
         // create gui instance
         super("", 0, HEIGHT);
@@ -89,20 +82,10 @@ public final class LvsGui extends Gui implements MouseListener {
         // init vars
         this.timetableGui = timetableGui;
         this.lvs = lvs;
-        this.username = username;
-
-        assert lvs.getDescription() != null;
-        final String[] descriptionParts = lvs.getDescription().split("\n");
-
-        for (int i = 0; i < descriptionParts[1].length(); i++) {
-            if (descriptionParts[1].charAt(i) != ' ') continue;
-
-            this.module = descriptionParts[1].substring(0, i);
-            this.lvsName = descriptionParts[1].substring(i);
-            break;
-        }
-        this.room = (descriptionParts.length > 2 ? descriptionParts[2] : "");
-        this.docentName = (descriptionParts.length > 3 ? descriptionParts[3] : "");
+        this.module = lvs.getModule();
+        this.lvsName = lvs.getName();
+        this.room = lvs.getRoom();
+        this.docentName = lvs.getLecturer();
 
         // set gui properties
         super.setTitle(lvsName);
@@ -136,7 +119,7 @@ public final class LvsGui extends Gui implements MouseListener {
                 50,
                 30
         );
-        colorButton.setBackground(lvs.getColor());
+        colorButton.setBackground(timetableGui.getSettings().getColor(lvs));
         colorButton.setFocusable(false);
         colorButton.addActionListener(e -> openColorPicker());
 
@@ -163,7 +146,7 @@ public final class LvsGui extends Gui implements MouseListener {
         colorPickerPanel.setBounds(10, 10, COLOR_PICKER_WIDTH - 50, COLOR_PICKER_HEIGHT - 30);
 
         final ColorPicker colorPicker = new ColorPicker(true, true, Locale.GERMAN);
-        colorPicker.setColor(lvs.getColor());
+        colorPicker.setColor(timetableGui.getSettings().getColor(lvs));
         colorPickerPanel.add(colorPicker);
 
         final JButton saveButton = new JButton("Speichern");
@@ -181,10 +164,13 @@ public final class LvsGui extends Gui implements MouseListener {
     }
 
     /**
-     * Speichert alle Einstellungen in diesem {@link LvsGui} ab und lädt die aktuelle Woche neu.
+     * Speichert alle Einstellungen in diesem {@link LvsGui} in den Individualisierungen des Nutzers ab (welche im
+     * Hintergrund gespeichert werden) und lädt die aktuelle Woche neu.
+     *
+     * @param color Die neue Farbe der Lehrveranstaltung.
      */
     private void save(@NotNull final Color color) {
-        UserHandler.saveConfiguration(username, "color." + lvsName, String.valueOf(color.getRGB()));
+        timetableGui.getSettings().setColor(lvsName, color);
 
         timetableGui.loadWeek(0);
     }
@@ -1,31 +1,28 @@
 package de.gemuesehasser.hspv.object.gui;
 
-import de.gemuesehasser.hspv.handler.UserHandler;
+import de.gemuesehasser.hspv.handler.LayoutHandler;
 import de.gemuesehasser.hspv.handler.WeekTimetableHandler;
-import de.gemuesehasser.hspv.listener.LvsButtonMouseListener;
 import de.gemuesehasser.hspv.object.Gui;
-import de.gemuesehasser.hspv.object.LVS;
-import de.gemuesehasser.hspv.object.gui.component.LvsButton;
+import de.gemuesehasser.hspv.object.LvsIndex;
+import de.gemuesehasser.hspv.object.UserSettings;
 import de.gemuesehasser.hspv.object.gui.component.TimelineDraw;
-import org.apache.commons.lang3.StringUtils;
+import de.gemuesehasser.hspv.object.gui.component.WeekDraw;
+import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Range;
 
-import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.SwingUtilities;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.time.DayOfWeek;
-import java.time.Duration;
+import java.awt.image.BufferedImage;
 import java.time.LocalDate;
 import java.time.format.TextStyle;
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Locale;
-import java.util.Objects;
+import java.util.Set;
 
 /**
  * Das {@link TimetableGui} stellt eine Instanz eines {@link Gui} dar, welches den Stundenplan anzeigt.
@@ -48,21 +45,37 @@ public final class TimetableGui extends Gui implements KeyListener {
 
 
     //<editor-fold desc="LOCAL FIELDS">
-    /** Alle Buttons, der aktuellen Lehrveranstaltungen, die angezeigt werden in der aktuellen Woche. */
+    /** Die Linie, die die aktuelle Zeit widerspiegelt. */
     @NotNull
-    private final List<JButton> lvsButtons = new ArrayList<>();
-    /** Der Benutzername des Nutzers, für den der Stundenplan geladen wird. */
+    private final TimelineDraw timelineDraw = new TimelineDraw();
+    /** Die Komponente, auf der die Lehrveranstaltungen der aktuellen Woche gezeichnet werden. */
     @NotNull
-    private final String username;
-    /** Eine Liste, der aktuellen Lehrveranstaltungen der aktuellen Woche. */
+    private final WeekDraw weekDraw = new WeekDraw(this);
+    /** Die Individualisierungen des Nutzers, für den der Stundenplan geladen wird. */
+    @Getter
     @NotNull
-    private LinkedList<LVS> currentLvs;
+    private final UserSettings settings;
     /** Das Datum, an welchem die aktuelle Woche startet (jeweils der Montag der Woche). */
     @NotNull
     private LocalDate weekStartDate;
-    /** Die aktuelle Anzahl an Wochen, welche die angezeigte Woche von der aktuellen Woche abweicht. */
-    @Range(from = Integer.MIN_VALUE, to = Integer.MAX_VALUE)
-    private int currentWeek = 0;
+    /** Die Nummer der aktuell angezeigten Woche seit der Epoche. */
+    private long currentWeek = LvsIndex.getEpochWeek(LocalDate.now());
+    /** Ob die Anzeige der aktuellen Woche bereits angefordert, aber noch nicht ausgeführt wurde. */
+    private boolean weekPending;
+    /** Das zwischengespeicherte Raster der angezeigten Woche (bzw. {@code null}, wenn noch keines erzeugt wurde). */
+    @Nullable
+    private BufferedImage gridImage;
+    /** Das Datum, an welchem die Woche des zwischengespeicherten Rasters startet. */
+    @Nullable
+    private LocalDate gridWeekStartDate;
+    /** Das Datum, an dem das zwischengespeicherte Raster erzeugt wurde. */
+    @Nullable
+    private LocalDate gridDate;
+    /** Die Konfiguration des Bildschirms, für die das zwischengespeicherte Raster erzeugt wurde. */
+    @Nullable
+    private GraphicsConfiguration gridConfiguration;
+    /** Die Skalierung des Bildschirms, für die das zwischengespeicherte Raster erzeugt wurde. */
+    private double gridScale;
     //</editor-fold>
 
 
@@ -78,15 +91,14 @@ public final class TimetableGui extends Gui implements KeyListener {
     ) {
         super(TITLE + " - " + username, WIDTH, HEIGHT);
         super.addKeyListener(this);
+        super.addWindowStateListener(e -> updateTimeline());
         super.setBounds(0, 0, WIDTH, HEIGHT);
         super.setLocationRelativeTo(null);
         loadingGui.dispose();
 
-        this.username = username;
-        this.currentLvs = WeekTimetableHandler.getWeekLvs(currentWeek);
-        this.weekStartDate = currentLvs.getFirst().getStart().toLocalDate();
+        this.settings = UserSettings.load(username);
+        this.weekStartDate = LvsIndex.getWeekStart(currentWeek);
 
-        final TimelineDraw timelineDraw = new TimelineDraw();
         timelineDraw.setBounds(0, 0, WIDTH, HEIGHT);
         timelineDraw.setVisible(true);
 
@@ -98,127 +110,73 @@ public final class TimetableGui extends Gui implements KeyListener {
         right.setBounds(WIDTH - 80, HEIGHT - 100, 50, 50);
         right.addActionListener(e -> loadWeek(1));
 
+        weekDraw.setBounds(0, 0, WIDTH, HEIGHT);
+        weekDraw.setWeekLayout(WeekTimetableHandler.getWeekLayout(currentWeek));
+
         super.add(timelineDraw);
         super.add(left);
         super.add(right);
+        super.add(weekDraw);
 
-        loadLvsButtons();
+        updateTimeline();
+        WeekTimetableHandler.prefetchAdjacentWeeks(currentWeek);
     }
     //</editor-fold>
 
 
     /**
-     * Wechselt die aktuelle Woche in diesem {@link TimetableGui}, die angezeigt wird. Dabei werden die LVS der Woche
-     * neu geladen und das Fenster wird komplett neu gezeichnet.
+     * Wechselt die aktuelle Woche in diesem {@link TimetableGui}, die angezeigt wird. Die Woche wird dabei nicht sofort,
+     * sondern im Anschluss an alle bereits anstehenden Ereignisse angezeigt, sodass bei mehreren schnell aufeinander
+     * folgenden Wechseln (z.B. beim Gedrückthalten einer Pfeiltaste) nur die zuletzt erreichte Woche angezeigt wird.
      *
      * @param weekAddition Die Anzahl an Wochen, um die die aktuelle Woche geändert werden soll. Dabei funktionieren
      *                     positive und auch negative ganze Zahlen.
      */
     public void loadWeek(@Range(from = Integer.MIN_VALUE, to = Integer.MAX_VALUE) final int weekAddition) {
         currentWeek += weekAddition;
-        this.currentLvs = WeekTimetableHandler.getWeekLvs(currentWeek);
-        super.remove(super.getDraw());
-        reloadLvsButtons();
-        super.repaint();
-        super.add(super.getDraw());
+
+        if (weekPending) return;
+
+        this.weekPending = true;
+        SwingUtilities.invokeLater(this::showCurrentWeek);
     }
 
     /**
-     * Lädt alle Buttons, welche für das Abbilden der Lehrveranstaltungen genutzt werden neu.
+     * Zeigt die aktuelle Woche in diesem {@link TimetableGui} an und bereitet anschließend die benachbarten Wochen im
+     * Hintergrund vor.
      */
-    private void reloadLvsButtons() {
-        for (@NotNull final JButton button : lvsButtons) {
-            super.remove(button);
-        }
-
-        lvsButtons.clear();
-
-        if (currentLvs.size() == 1 && currentLvs.getFirst().getEnd() == null && currentLvs.getFirst().getDescription() == null) {
-            weekStartDate = currentLvs.getFirst().getStart().toLocalDate();
-            currentLvs.clear();
-            return;
-        }
+    private void showCurrentWeek() {
+        this.weekPending = false;
+        this.weekStartDate = LvsIndex.getWeekStart(currentWeek);
 
-        if (currentLvs.getFirst().getStart().getDayOfWeek() != DayOfWeek.MONDAY) {
-            weekStartDate = currentLvs.getFirst().getStart().toLocalDate().minusDays(
-                currentLvs.getFirst().getStart().getDayOfWeek().getValue() - 1
-            );
-        } else {
-            weekStartDate = currentLvs.getFirst().getStart().toLocalDate();
-        }
+        weekDraw.setWeekLayout(WeekTimetableHandler.getWeekLayout(currentWeek));
+        super.repaint();
+        updateTimeline();
 
-        loadLvsButtons();
+        WeekTimetableHandler.prefetchAdjacentWeeks(currentWeek);
     }
 
     /**
-     * Lädt alle Buttons, die zum Darstellen der aktuellen Lehrveranstaltungen erstmalig.
+     * Lädt die aktuell angezeigte Woche neu, sofern diese zu den veränderten Wochen gehört. Alle anderen Wochen werden
+     * erst beim nächsten Wechsel der Woche aus dem aktualisierten Stundenplan geladen.
+     *
+     * @param changedWeeks Die Nummern aller Wochen seit der Epoche, in denen sich Lehrveranstaltungen verändert haben.
      */
-    private void loadLvsButtons() {
-        for (@NotNull final LVS lvs : currentLvs) {
-            final int absoluteDurationInMinutes = (int) Duration.between(lvs.getStart(), lvs.getEnd()).toMinutes();
-            final int lvsDurationWithoutBreaks = ((absoluteDurationInMinutes - (absoluteDurationInMinutes / 135 * 15)) / 45) * 45;
-
-            final int lvsBeginDuration = (int) Duration.between(
-                lvs.getStart().withHour(8).withMinute(0),
-                lvs.getStart()
-            ).toMinutes();
-            final int lvsBeginDurationWithoutBreaks = ((lvsBeginDuration - (lvsBeginDuration / 135 * 15)) / 45) * 45;
-
-            final int x = 50 + ((lvs.getStart().getDayOfWeek().getValue() - 1) * 90);
-            final int y = 30 + (lvsBeginDurationWithoutBreaks / 45) * 55 + ((lvsBeginDurationWithoutBreaks / 90) * 15) + (lvsBeginDurationWithoutBreaks / 270 == 1 ? 15 : 0);
-            final int width = 90;
-            final int height = (lvsDurationWithoutBreaks / 45) * 55 + (absoluteDurationInMinutes - lvsDurationWithoutBreaks);
-
-            assert lvs.getDescription() != null;
-            final String[] descriptionParts = lvs.getDescription().split("\n");
-            final String room = (descriptionParts.length > 2 ? descriptionParts[2] : StringUtils.EMPTY);
-            String description = "description";
-
-            for (int i = 0; i < descriptionParts[1].length(); i++) {
-                if (descriptionParts[1].charAt(i) != ' ') continue;
-
-                description = descriptionParts[1].substring(i);
-                break;
-            }
-
-            // check if color configuration already exists
-            if (UserHandler.getConfiguration(username, "color." + description) == null) {
-                UserHandler.saveConfiguration(
-                    username,
-                    "color." + description,
-                    String.valueOf(lvs.getColor().getRGB())
-                );
-            }
+    public void reloadWeeks(@NotNull final Set<Long> changedWeeks) {
+        if (!changedWeeks.contains(currentWeek)) return;
 
-            // get color rgb
-            final String colorRgb = UserHandler.getConfiguration(username, "color." + description);
+        loadWeek(0);
+    }
 
-            // set lvs color
-            assert colorRgb != null;
-            lvs.setColor(new Color(Integer.parseInt(colorRgb)));
+    /**
+     * Aktiviert die minütliche Aktualisierung der Linie, die die aktuelle Zeit widerspiegelt, nur dann, wenn die
+     * aktuelle Woche angezeigt wird und dieses Fenster nicht minimiert ist. Ansonsten wird die Aktualisierung beendet.
+     */
+    private void updateTimeline() {
+        final boolean currentWeekShown = currentWeek == LvsIndex.getEpochWeek(LocalDate.now());
+        final boolean minimized = (super.getExtendedState() & Frame.ICONIFIED) != 0;
 
-            final LvsButton button = new LvsButton(
-                "<html><a style='margin: 20px'>" + description + "<br><br>" + (Objects.equals(
-                    room,
-                    StringUtils.EMPTY
-                ) ? "Kein Raum" : room) + "</a>",
-                25
-            );
-            button.setBounds(x, y, width, height);
-            button.setBackground(lvs.getColor());
-            button.setFocusable(false);
-            button.setBorder(BorderFactory.createLineBorder(Color.BLACK, 1));
-            button.addActionListener(e -> {
-                final LvsGui lvsGui = new LvsGui(this, lvs, username);
-                final Point mousePoint = MouseInfo.getPointerInfo().getLocation();
-                lvsGui.setLocation(mousePoint.x - 5, mousePoint.y - 5);
-                lvsGui.open();
-            });
-            button.addMouseListener(new LvsButtonMouseListener(lvs, button));
-
-            this.lvsButtons.add(button);
-            super.add(button);
-        }
+        timelineDraw.setTicking(currentWeekShown && !minimized);
     }
 
     /**
@@ -240,64 +198,140 @@ public final class TimetableGui extends Gui implements KeyListener {
         return button;
     }
 
-    //<editor-fold desc="implementation">
+    /**
+     * Gibt das Raster der aktuell angezeigten Woche zurück, welches den Hintergrund inklusive aller Linien und
+     * Beschriftungen sowie die Hervorhebung des aktuellen Tages enthält. Das Raster wird nur neu erzeugt, wenn sich die
+     * Woche, das aktuelle Datum oder die Konfiguration des Bildschirms (bzw. dessen Skalierung) verändert hat.
+     *
+     * @param g Das {@link Graphics2D}, auf welches das Raster gezeichnet werden soll.
+     *
+     * @return Das Raster der aktuell angezeigten Woche.
+     */
+    @NotNull
+    private BufferedImage getGridImage(@NotNull final Graphics2D g) {
+        final GraphicsConfiguration configuration = super.getGraphicsConfiguration();
+        final double scale = g.getTransform().getScaleX();
+        final LocalDate today = LocalDate.now();
+
+        if (
+            gridImage != null
+                && weekStartDate.equals(gridWeekStartDate)
+                && today.equals(gridDate)
+                && configuration == gridConfiguration
+                && scale == gridScale
+        ) {
+            return gridImage;
+        }
+
+        this.gridImage = createGridImage(configuration, scale, today);
+        this.gridWeekStartDate = weekStartDate;
+        this.gridDate = today;
+        this.gridConfiguration = configuration;
+        this.gridScale = scale;
+
+        return gridImage;
+    }
+
+    /**
+     * Erzeugt ein neues, deckendes Raster der aktuell angezeigten Woche, welches den Hintergrund inklusive aller
+     * Linien und Beschriftungen sowie die Hervorhebung des aktuellen Tages enthält. Das Raster wird dabei passend zur
+     * Konfiguration des Bildschirms erzeugt, sodass es möglichst schnell gezeichnet werden kann.
+     *
+     * @param configuration Die Konfiguration des Bildschirms, auf dem dieses Fenster angezeigt wird.
+     * @param scale         Die Skalierung des Bildschirms.
+     * @param today         Das aktuelle Datum.
+     *
+     * @return Ein neues Raster der aktuell angezeigten Woche.
+     */
+    @NotNull
+    private BufferedImage createGridImage(
+        @Nullable final GraphicsConfiguration configuration,
+        final double scale,
+        @NotNull final LocalDate today
+    ) {
+        final int imageWidth = (int) Math.ceil(WIDTH * scale);
+        final int imageHeight = (int) Math.ceil(HEIGHT * scale);
+        final BufferedImage image = (configuration == null)
+                                    ? new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB)
+                                    : configuration.createCompatibleImage(imageWidth, imageHeight, Transparency.OPAQUE);
+
+        final Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setFont(super.getDraw().getFont());
+        g.scale(scale, scale);
 
-    /* This drawing method includes everything under the buttons. */
-    @Override
-    public void draw(@NotNull final Graphics2D g) {
         g.setColor(Color.DARK_GRAY);
         g.fillRect(0, 0, WIDTH, HEIGHT);
 
         g.setColor(Color.BLACK);
-        g.drawRect(0, 0, 50, HEIGHT);
+        g.drawRect(0, 0, LayoutHandler.DAYS_BEGIN_X, HEIGHT);
 
         g.setColor(Color.WHITE);
         g.drawString(weekStartDate.getMonth().getDisplayName(TextStyle.SHORT_STANDALONE, Locale.GERMANY), 5, 20);
 
         // draw vertical components
-        for (int i = 0; i < 5; i++) {
-            if (LocalDate.now().isEqual(weekStartDate.plusDays(i))) {
+        for (int i = 0; i < LayoutHandler.DAY_AMOUNT; i++) {
+            final int dayX = LayoutHandler.DAYS_BEGIN_X + i * LayoutHandler.DAY_WIDTH;
+
+            if (today.isEqual(weekStartDate.plusDays(i))) {
                 g.setColor(Color.GRAY);
-                g.fillRect(50 + i * 90, 30, 90, HEIGHT);
+                g.fillRect(dayX, LayoutHandler.GRID_BEGIN_Y, LayoutHandler.DAY_WIDTH, HEIGHT);
             }
 
             g.setColor(Color.BLACK);
-            g.drawRect(50 + i * 90, 0, 90, HEIGHT);
+            g.drawRect(dayX, 0, LayoutHandler.DAY_WIDTH, HEIGHT);
 
             g.setColor(Color.WHITE);
             g.drawString(
                 weekStartDate.plusDays(i).getDayOfWeek().getDisplayName(
                     TextStyle.SHORT_STANDALONE,
                     Locale.GERMANY
-                ) + " " + weekStartDate.plusDays(i).getDayOfMonth(), 55 + i * 90, 20
+                ) + " " + weekStartDate.plusDays(i).getDayOfMonth(), dayX + 5, 20
             );
         }
 
         // draw horizontal components
         g.setColor(Color.BLACK);
-        g.drawRect(0, 0, WIDTH, 30);
-        for (int i = 0; i < HEIGHT / 55; i++) {
-            final int breakAddition = (i / 2) * 15 + (i / 6 == 1 ? 15 : 0);
+        g.drawRect(0, 0, WIDTH, LayoutHandler.GRID_BEGIN_Y);
+        for (int i = 0; i < LayoutHandler.getSlotAmount(); i++) {
+            final int slotBegin = LayoutHandler.getSlotBegin(i);
+            final int slotY = LayoutHandler.getY(slotBegin);
+            if (slotY >= HEIGHT) break;
 
             g.setColor(Color.BLACK);
-            g.drawRect(0, 30 + i * 55 + breakAddition, WIDTH, 55);
+            g.drawRect(0, slotY, WIDTH, LayoutHandler.SLOT_HEIGHT);
 
-            final int absoluteMinutePlus = (i * 45) + breakAddition;
+            g.setColor(Color.WHITE);
+            g.drawString(formatMinuteOfDay(slotBegin), 3, slotY + 15);
+            g.drawString(formatMinuteOfDay(LayoutHandler.getSlotEnd(i)), 3, slotY + 50);
+        }
 
-            final int hourPlus = absoluteMinutePlus / 60;
-            final int minutePlus = absoluteMinutePlus - hourPlus * 60;
+        g.dispose();
 
-            final int hourPlusPlus = (absoluteMinutePlus + 45) / 60;
-            final int minutePlusPlus = (absoluteMinutePlus + 45) - hourPlusPlus * 60;
+        return image;
+    }
 
-            g.setColor(Color.WHITE);
-            g.drawString((8 + hourPlus) + ":" + (minutePlus == 0 ? "00" : minutePlus), 3, 45 + i * 55 + breakAddition);
-            g.drawString(
-                (8 + hourPlusPlus) + ":" + (minutePlusPlus == 0 ? "00" : minutePlusPlus),
-                3,
-                80 + i * 55 + breakAddition
-            );
-        }
+    /**
+     * Formatiert eine Minute des Tages als Uhrzeit (z.B. {@code 8:45}).
+     *
+     * @param minuteOfDay Die Minute des Tages.
+     *
+     * @return Die formatierte Uhrzeit.
+     */
+    @NotNull
+    private static String formatMinuteOfDay(final int minuteOfDay) {
+        final int minute = minuteOfDay % 60;
+
+        return (minuteOfDay / 60) + ":" + (minute < 10 ? "0" + minute : String.valueOf(minute));
+    }
+
+    //<editor-fold desc="implementation">
+
+    /* This drawing method includes everything under the buttons. */
+    @Override
+    public void draw(@NotNull final Graphics2D g) {
+        g.drawImage(getGridImage(g), 0, 0, WIDTH, HEIGHT, null);
     }
 
     @Override
@@ -1,21 +1,117 @@
 package de.gemuesehasser.hspv.object.gui.component;
 
+import de.gemuesehasser.hspv.handler.LayoutHandler;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.Color;
+import java.awt.Window;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 
 /**
  * Mithilfe eines {@link TimelineDraw} wird, kann auf dem {@link de.gemuesehasser.hspv.object.gui.TimetableGui} eine
- * Linie eingezeichnet werden, die die aktuelle Zeit widerspiegelt.
+ * Linie eingezeichnet werden, die die aktuelle Zeit widerspiegelt. Die Linie wird nur zu Beginn jeder Minute neu
+ * gezeichnet, wobei lediglich die Streifen erneuert werden, die die Linie verlässt bzw. neu einnimmt. Solange die Linie
+ * nicht aktualisiert werden muss (siehe {@link #setTicking(boolean)}), wird überhaupt nicht neu gezeichnet.
  */
 public final class TimelineDraw extends JLabel {
 
+    //<editor-fold desc="CONSTANTS">
+    /** Die x-Koordinate, an der die Linie beginnt. */
+    private static final int LINE_BEGIN_X = 40;
+    /** Die Höhe der Linie. */
+    private static final int LINE_HEIGHT = 3;
+    /** Die Anzahl an Millisekunden, um die die Aktualisierung nach Beginn einer Minute verzögert wird. */
+    private static final int TICK_DELAY = 50;
+    //</editor-fold>
+
+
+    //<editor-fold desc="LOCAL FIELDS">
+    /** Der {@link Timer}, welcher die Linie zu Beginn jeder Minute aktualisiert. */
+    @NotNull
+    private final Timer timer = new Timer(0, e -> tick());
+    /** Die y-Koordinate, an der die Linie zuletzt gezeichnet wurde (bzw. {@code null}, wenn sie noch nie gezeichnet wurde). */
+    @Nullable
+    private Integer lineY;
+    /** Das Datum, an dem die Linie zuletzt aktualisiert wurde. */
+    @NotNull
+    private LocalDate lineDate = LocalDate.now();
+    //</editor-fold>
+
+
+    //<editor-fold desc="CONSTRUCTORS">
+
+    /**
+     * Erzeugt eine neue Instanz eines {@link TimelineDraw}. Die Linie wird dabei erst aktualisiert, sobald dies mithilfe
+     * von {@link #setTicking(boolean)} aktiviert wird.
+     */
+    public TimelineDraw() {
+        timer.setRepeats(false);
+    }
+    //</editor-fold>
+
+
+    /**
+     * Legt fest, ob die Linie zu Beginn jeder Minute aktualisiert werden soll. Die Aktualisierung sollte nur aktiviert
+     * werden, wenn das Fenster sichtbar ist und die aktuelle Woche anzeigt. Wird die Aktualisierung aktiviert, wird die
+     * Linie sofort auf die aktuelle Zeit gesetzt.
+     *
+     * @param ticking Ob die Linie zu Beginn jeder Minute aktualisiert werden soll.
+     */
+    public void setTicking(final boolean ticking) {
+        if (!ticking) {
+            timer.stop();
+            return;
+        }
+
+        if (timer.isRunning()) return;
+
+        tick();
+    }
+
+    /**
+     * Aktualisiert die Linie auf die aktuelle Zeit und plant die nächste Aktualisierung zu Beginn der nächsten Minute.
+     * Hat sich seit der letzten Aktualisierung das Datum geändert, wird das gesamte Fenster neu gezeichnet, da sich dann
+     * auch die Hervorhebung des aktuellen Tages verschiebt.
+     */
+    private void tick() {
+        final LocalDateTime now = LocalDateTime.now();
+        final int currentY = LayoutHandler.getY(now.toLocalTime());
+
+        if (!now.toLocalDate().isEqual(lineDate)) {
+            lineDate = now.toLocalDate();
+
+            final Window window = SwingUtilities.getWindowAncestor(this);
+            if (window != null) window.repaint();
+        } else if (lineY == null || lineY != currentY) {
+            if (lineY != null) repaintLine(lineY);
+            repaintLine(currentY);
+        }
+
+        final LocalDateTime nextMinute = now.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        timer.setInitialDelay((int) ChronoUnit.MILLIS.between(now, nextMinute) + TICK_DELAY);
+        timer.restart();
+    }
+
+    /**
+     * Zeichnet den Streifen dieser Komponente neu, in dem sich die Linie an einer bestimmten y-Koordinate befindet.
+     *
+     * @param y Die y-Koordinate der Linie.
+     */
+    private void repaintLine(final int y) {
+        super.repaint(LINE_BEGIN_X, y, super.getWidth() - LINE_BEGIN_X, LINE_HEIGHT);
+    }
+
     //<editor-fold desc="implementation">
 
     @Override
@@ -26,20 +122,12 @@ public final class TimelineDraw extends JLabel {
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
 
-        // get current local time
-        final LocalDateTime currentTime = LocalDateTime.now();
-
         // display current local time as red line
-        final int currentTimeMinuteAddition = (currentTime.getHour() - 8) * 60 + currentTime.getMinute();
-        final int lvsAmount = (currentTimeMinuteAddition - ((currentTimeMinuteAddition / 90) * 15)) / 45;
-        final int breakAddition = (lvsAmount / 2) * 15 + (lvsAmount / 6 == 1 ? 15 : 0);
-
-        final int currentTimeY = (lvsAmount * 55) + breakAddition + (currentTimeMinuteAddition - (lvsAmount * 45 + breakAddition));
+        final int currentTimeY = LayoutHandler.getY(LocalTime.now());
+        this.lineY = currentTimeY;
 
         g2d.setColor(Color.RED);
-        g2d.fillRect(40, 30 + currentTimeY, super.getWidth(), 3);
-
-        repaint();
+        g2d.fillRect(LINE_BEGIN_X, currentTimeY, super.getWidth(), LINE_HEIGHT);
     }
     //</editor-fold>
 }
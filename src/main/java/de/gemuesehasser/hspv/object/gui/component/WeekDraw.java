@@ -0,0 +1,334 @@
+package de.gemuesehasser.hspv.object.gui.component;
+
+import de.gemuesehasser.hspv.handler.LayoutHandler;
+import de.gemuesehasser.hspv.object.WeekLayout;
+import de.gemuesehasser.hspv.object.WeekLayout.Block;
+import de.gemuesehasser.hspv.object.gui.LvsGui;
+import de.gemuesehasser.hspv.object.gui.TimetableGui;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.JLabel;
+import javax.swing.UIManager;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Mithilfe eines {@link WeekDraw} werden alle Lehrveranstaltungen einer Woche auf dem {@link TimetableGui} als Blöcke
+ * mit abgerundeten Ecken gezeichnet. Alle Blöcke werden von dieser einen Komponente gezeichnet, sodass beim Wechseln
+ * der Woche keine Komponenten erzeugt oder entfernt werden müssen. Die Position der Blöcke wird durch das
+ * {@link WeekLayout} der Woche vorgegeben, anhand dessen auch Mausaktionen dem jeweiligen Block zugeordnet werden. Die
+ * Zeilen, in die der Text eines Blocks umgebrochen wird, werden für jeden Block nur einmalig berechnet.
+ */
+public final class WeekDraw extends JLabel implements MouseListener, MouseMotionListener {
+
+    //<editor-fold desc="CONSTANTS">
+    /** Der Abstand zwischen dem Rand eines Blocks und seinem Text. */
+    private static final int TEXT_INSET = 1;
+    /** Der Text, der angezeigt wird, wenn für eine Lehrveranstaltung kein Raum angegeben ist. */
+    @NotNull
+    private static final String NO_ROOM = "Kein Raum";
+    /** Die Schriftart, in der der Text einer Lehrveranstaltung gezeichnet wird. */
+    @NotNull
+    private static final Font FONT = UIManager.getFont("Button.font");
+    /** Die Farbe, in der der Text einer Lehrveranstaltung gezeichnet wird. */
+    @NotNull
+    private static final Color FOREGROUND = UIManager.getColor("Button.foreground");
+    /** Die Farbe, die ein Block hat, solange er mit der Maus gedrückt wird. */
+    @NotNull
+    private static final Color PRESSED_COLOR = Color.ORANGE;
+    //</editor-fold>
+
+
+    //<editor-fold desc="LOCAL FIELDS">
+    /** Das jeweilige {@link TimetableGui}, auf dem die Woche angezeigt wird. */
+    @NotNull
+    private final TimetableGui timetableGui;
+    /** Das Layout der aktuell angezeigten Woche. */
+    @Nullable
+    private WeekLayout weekLayout;
+    /** Die Zeilen, in die der Text jedes bereits angezeigten Blocks umgebrochen wird. */
+    @NotNull
+    private final Map<Block, String[]> textLines = new WeakHashMap<>();
+    /** Der Block, über dem sich der Mauszeiger aktuell befindet. */
+    @Nullable
+    private Block hoveredBlock;
+    /** Der Block, auf dem die Maus gedrückt wurde. */
+    @Nullable
+    private Block pressedBlock;
+    //</editor-fold>
+
+
+    //<editor-fold desc="CONSTRUCTORS">
+
+    /**
+     * Erzeugt eine neue Instanz eines {@link WeekDraw}, mit dem alle Lehrveranstaltungen einer Woche auf einem
+     * bestimmten {@link TimetableGui} gezeichnet werden.
+     *
+     * @param timetableGui Das {@link TimetableGui}, auf dem die Woche angezeigt wird.
+     */
+    public WeekDraw(@NotNull final TimetableGui timetableGui) {
+        this.timetableGui = timetableGui;
+
+        super.addMouseListener(this);
+        super.addMouseMotionListener(this);
+    }
+    //</editor-fold>
+
+
+    /**
+     * Setzt das Layout der Woche, die in dieser Komponente angezeigt werden soll.
+     *
+     * @param weekLayout Das Layout der anzuzeigenden Woche.
+     */
+    public void setWeekLayout(@NotNull final WeekLayout weekLayout) {
+        this.weekLayout = weekLayout;
+        this.hoveredBlock = null;
+        this.pressedBlock = null;
+        super.repaint();
+    }
+
+    /**
+     * Gibt den Block zurück, der sich an einer bestimmten Position befindet.
+     *
+     * @param x Die x-Koordinate der Position.
+     * @param y Die y-Koordinate der Position.
+     *
+     * @return Der Block an der Position oder {@code null}, wenn sich dort kein Block befindet.
+     */
+    @Nullable
+    private Block getBlockAt(
+        final int x,
+        final int y
+    ) {
+        if (weekLayout == null) return null;
+
+        return weekLayout.getBlockAt(x, y);
+    }
+
+    /**
+     * Aktualisiert den Block, über dem sich der Mauszeiger befindet, und zeichnet die betroffenen Blöcke neu.
+     *
+     * @param block Der Block, über dem sich der Mauszeiger nun befindet.
+     */
+    private void setHoveredBlock(@Nullable final Block block) {
+        if (block == hoveredBlock) return;
+
+        if (hoveredBlock != null) super.repaint(hoveredBlock.getBounds());
+        if (block != null) super.repaint(block.getBounds());
+
+        this.hoveredBlock = block;
+    }
+
+    /**
+     * Gibt die Zeilen zurück, in die der Text einer Lehrveranstaltung (Name und Raum) umgebrochen wird, sodass er in
+     * den Block der Lehrveranstaltung passt. Die Zeilen werden nur bei der ersten Abfrage berechnet.
+     *
+     * @param block   Der Block der Lehrveranstaltung.
+     * @param metrics Die {@link FontMetrics} der Schriftart, in der der Text gezeichnet wird.
+     *
+     * @return Die Zeilen, in die der Text der Lehrveranstaltung umgebrochen wird.
+     */
+    private String @NotNull [] getTextLines(
+        @NotNull final Block block,
+        @NotNull final FontMetrics metrics
+    ) {
+        final String[] cached = textLines.get(block);
+        if (cached != null) return cached;
+
+        final int maxWidth = block.getBounds().width - 2 * TEXT_INSET;
+        final String room = block.getLvs().getRoom();
+        final List<String> lines = new ArrayList<>();
+
+        wrap(block.getLvs().getName(), metrics, maxWidth, lines);
+        lines.add("");
+        wrap(room.isEmpty() ? NO_ROOM : room, metrics, maxWidth, lines);
+
+        final String[] result = lines.toArray(new String[0]);
+        textLines.put(block, result);
+
+        return result;
+    }
+
+    //<editor-fold desc="implementation">
+
+    @Override
+    protected void paintComponent(@NotNull final Graphics g) {
+        super.paintComponent(g);
+
+        final Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+
+        final Object desktopHints = Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+        if (desktopHints instanceof Map) g2d.addRenderingHints((Map<?, ?>) desktopHints);
+
+        g2d.setFont(FONT);
+        final FontMetrics metrics = g2d.getFontMetrics();
+        final Rectangle clip = g2d.getClipBounds();
+
+        if (weekLayout == null) return;
+
+        for (int day = 0; day < LayoutHandler.DAY_AMOUNT; day++) {
+            for (@NotNull final Block block : weekLayout.getBlocks(day)) {
+                if (clip != null && !clip.intersects(block.getBounds())) continue;
+
+                drawBlock(g2d, block, metrics);
+            }
+        }
+    }
+
+    /**
+     * Zeichnet einen einzelnen Block inklusive des Textes seiner Lehrveranstaltung.
+     *
+     * @param g       Das {@link Graphics2D}, mit dem gezeichnet wird.
+     * @param block   Der Block, der gezeichnet werden soll.
+     * @param metrics Die {@link FontMetrics} der Schriftart, in der der Text gezeichnet wird.
+     */
+    private void drawBlock(
+        @NotNull final Graphics2D g,
+        @NotNull final Block block,
+        @NotNull final FontMetrics metrics
+    ) {
+        final Color color = timetableGui.getSettings().getColor(block.getLvs());
+        final Color background = (block == hoveredBlock) ? getHoverColor(color) : color;
+        final boolean armed = block == pressedBlock && block == hoveredBlock;
+
+        g.setColor(armed ? PRESSED_COLOR : background);
+        g.fill(block.getShape());
+
+        g.setColor(background.darker());
+        g.draw(block.getShape());
+
+        final String[] lines = getTextLines(block, metrics);
+        final Rectangle bounds = block.getBounds();
+        final int lineHeight = metrics.getHeight();
+        int y = bounds.y + (bounds.height - lines.length * lineHeight) / 2 + metrics.getAscent();
+
+        final Graphics2D textGraphics = (Graphics2D) g.create(bounds.x, bounds.y, bounds.width, bounds.height);
+        textGraphics.translate(-bounds.x, -bounds.y);
+        textGraphics.setColor(FOREGROUND);
+
+        for (@NotNull final String line : lines) {
+            textGraphics.drawString(line, bounds.x + TEXT_INSET, y);
+            y += lineHeight;
+        }
+
+        textGraphics.dispose();
+    }
+
+    @Override
+    public void mouseClicked(@NotNull final MouseEvent e) {
+
+    }
+
+    @Override
+    public void mousePressed(@NotNull final MouseEvent e) {
+        this.pressedBlock = getBlockAt(e.getX(), e.getY());
+        if (pressedBlock == null) return;
+
+        super.repaint(pressedBlock.getBounds());
+    }
+
+    @Override
+    public void mouseReleased(@NotNull final MouseEvent e) {
+        final Block block = pressedBlock;
+        this.pressedBlock = null;
+
+        if (block == null) return;
+
+        super.repaint(block.getBounds());
+        if (block != getBlockAt(e.getX(), e.getY())) return;
+
+        final LvsGui lvsGui = new LvsGui(timetableGui, block.getLvs());
+        lvsGui.setLocation(e.getXOnScreen() - 5, e.getYOnScreen() - 5);
+        lvsGui.open();
+    }
+
+    @Override
+    public void mouseEntered(@NotNull final MouseEvent e) {
+        setHoveredBlock(getBlockAt(e.getX(), e.getY()));
+    }
+
+    @Override
+    public void mouseExited(@NotNull final MouseEvent e) {
+        setHoveredBlock(null);
+    }
+
+    @Override
+    public void mouseDragged(@NotNull final MouseEvent e) {
+        setHoveredBlock(getBlockAt(e.getX(), e.getY()));
+    }
+
+    @Override
+    public void mouseMoved(@NotNull final MouseEvent e) {
+        setHoveredBlock(getBlockAt(e.getX(), e.getY()));
+    }
+    //</editor-fold>
+
+
+    //<editor-fold desc="utility">
+
+    /**
+     * Bricht einen Text an seinen Leerzeichen in Zeilen um, die höchstens eine bestimmte Breite haben. Einzelne Wörter,
+     * die breiter sind, werden nicht weiter umgebrochen.
+     *
+     * @param text     Der Text, der umgebrochen werden soll.
+     * @param metrics  Die {@link FontMetrics} der Schriftart, in der der Text gezeichnet wird.
+     * @param maxWidth Die maximale Breite einer Zeile.
+     * @param lines    Die Liste, der alle Zeilen hinzugefügt werden.
+     */
+    private static void wrap(
+        @NotNull final String text,
+        @NotNull final FontMetrics metrics,
+        final int maxWidth,
+        @NotNull final List<String> lines
+    ) {
+        final StringBuilder line = new StringBuilder();
+
+        for (@NotNull final String word : text.trim().split("\\s+")) {
+            if (line.length() > 0 && metrics.stringWidth(line + " " + word) > maxWidth) {
+                lines.add(line.toString());
+                line.setLength(0);
+            }
+
+            if (line.length() > 0) line.append(' ');
+            line.append(word);
+        }
+
+        lines.add(line.toString());
+    }
+
+    /**
+     * Gibt auf der Grundlage einer Farbe, eine Farbe zurück, die angezeigt werden soll, wenn man einen Block mit der
+     * Maus betritt.
+     *
+     * @param color Die Farbe, die die Grundlage für die Hover-Farbe bildet.
+     *
+     * @return Eine Farbe auf der Grundlage einer Farbe, die angezeigt werden soll, wenn man einen Block mit der Maus
+     *     betritt.
+     */
+    @NotNull
+    private static Color getHoverColor(@NotNull final Color color) {
+        final float[] hsb = Color.RGBtoHSB(color.getRed(), color.getGreen(), color.getBlue(), null);
+        final int rgb = Color.HSBtoRGB(hsb[0], 0.73F, 0.85F);
+
+        return new Color(rgb);
+    }
+    //</editor-fold>
+
+}